@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.benchmarks;
+
+import org.bitcoinj.base.Network;
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.AuxPoW;
+import org.bitcoinj.core.Context;
+import org.libdohj.params.DogecoinMainNetParams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and validation of the AuxPoW headers of merged-mined Dogecoin
+ * blocks: the check that the parent block commits to the block, and the
+ * check of the parent block's Scrypt hash against the block's target.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class AuxPoWBenchmark {
+    @Param({
+        "dogecoin_block371337.bin",
+        "dogecoin_block748634.bin",
+        "dogecoin_block894863.bin"
+    })
+    public String fixture;
+
+    private Network network;
+    private int chainId;
+    private Sha256Hash blockHash;
+    private long difficultyTarget;
+    private ByteBuffer payload;
+    private AuxPoW auxpow;
+
+    @Setup
+    public void setUp() throws Exception {
+        final DogecoinMainNetParams params = DogecoinMainNetParams.get();
+        Context.propagate(new Context(params));
+        final AltcoinBlock block = (AltcoinBlock) params.getDefaultSerializer()
+            .makeBlock(ByteBuffer.wrap(Fixtures.load(fixture)));
+        network = params.network();
+        chainId = params.getChainID();
+        blockHash = block.getHash();
+        difficultyTarget = block.getDifficultyTarget();
+        payload = block.getAuxPoWBytes();
+        auxpow = AuxPoW.read(network, payload);
+        // Fail fast if the fixture is not valid, rather than benchmark the failure
+        auxpow.checkAuxBlock(blockHash, chainId);
+        auxpow.checkProofOfWork(difficultyTarget, true);
+    }
+
+    @Benchmark
+    public AuxPoW parse() {
+        return AuxPoW.read(network, payload);
+    }
+
+    @Benchmark
+    public AuxPoW checkAuxBlock() {
+        auxpow.checkAuxBlock(blockHash, chainId);
+        return auxpow;
+    }
+
+    @Benchmark
+    public boolean checkProofOfWork() {
+        return auxpow.checkProofOfWork(difficultyTarget, false);
+    }
+
+    @Benchmark
+    public boolean parseAndCheck() {
+        final AuxPoW parsed = AuxPoW.read(network, payload);
+        parsed.checkAuxBlock(blockHash, chainId);
+        return parsed.checkProofOfWork(difficultyTarget, false);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.benchmarks;
+
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.MessageSerializer;
+import org.libdohj.params.DogecoinMainNetParams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of full blocks through the Dogecoin serializer, both with
+ * and without AuxPoW headers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class BlockParseBenchmark {
+    @Param({
+        "dogecoin_block1.bin",
+        "dogecoin_block250000.bin",
+        "dogecoin_block371337.bin",
+        "dogecoin_block748634.bin",
+        "dogecoin_block894863.bin"
+    })
+    public String fixture;
+
+    private MessageSerializer serializer;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws Exception {
+        final DogecoinMainNetParams params = DogecoinMainNetParams.get();
+        Context.propagate(new Context(params));
+        serializer = params.getDefaultSerializer();
+        payload = Fixtures.load(fixture);
+    }
+
+    @Benchmark
+    public Block makeBlock() throws Exception {
+        return serializer.makeBlock(ByteBuffer.wrap(payload));
+    }
+}
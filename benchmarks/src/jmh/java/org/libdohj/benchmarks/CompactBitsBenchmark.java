@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.benchmarks;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.libdohj.core.Uint256;
+import org.libdohj.core.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion between compact ("nBits") and full difficulty targets, performed
+ * for every header checked and every retarget.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class CompactBitsBenchmark {
+    /** Difficulty of Dogecoin block #250,000. */
+    private static final long COMPACT = 0x1b568bb8L;
+
+    /** Scrypt hash of Dogecoin block #250,000, which only just meets its target. */
+    private static final Sha256Hash HASH
+        = Sha256Hash.wrap("000000000055d1e26d58c7c549e799cd1da1fb2cb954b17f9e7e62b96a3ee5df");
+
+    private BigInteger target;
+    private Uint256 uint256Target;
+    private final Uint256 work = new Uint256();
+
+    @Setup
+    public void setUp() {
+        target = Utils.decodeCompactBits(COMPACT);
+        uint256Target = Uint256.fromCompactBits(COMPACT);
+    }
+
+    @Benchmark
+    public BigInteger decodeCompactBits() {
+        return Utils.decodeCompactBits(COMPACT);
+    }
+
+    @Benchmark
+    public long encodeCompactBits() {
+        return Utils.encodeCompactBits(target);
+    }
+
+    @Benchmark
+    public Uint256 decodeCompactBitsUint256() {
+        return uint256Target.setCompactBits(COMPACT);
+    }
+
+    @Benchmark
+    public long encodeCompactBitsUint256() {
+        return uint256Target.toCompactBits();
+    }
+
+    @Benchmark
+    public boolean checkProofOfWorkBigInteger() {
+        return HASH.toBigInteger().compareTo(Utils.decodeCompactBits(COMPACT)) <= 0;
+    }
+
+    @Benchmark
+    public boolean checkProofOfWorkUint256() {
+        return Uint256.checkProofOfWork(HASH, COMPACT);
+    }
+
+    @Benchmark
+    public Uint256 work() {
+        return work.setWork(uint256Target);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Loads the binary block and AuxPoW fixtures shared with the core tests.
+ */
+final class Fixtures {
+    private static final String RESOURCE_ROOT = "/org/bitcoinj/core/";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Read a fixture from the core test resources.
+     *
+     * @param name file name of the fixture, such as "dogecoin_block1.bin".
+     */
+    static byte[] load(final String name) throws IOException {
+        try (InputStream in = Fixtures.class.getResourceAsStream(RESOURCE_ROOT + name)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark fixture " + name);
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Read the 80 byte header from the start of a block fixture.
+     */
+    static byte[] loadHeader(final String name) throws IOException {
+        return Arrays.copyOf(load(name), 80);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.benchmarks;
+
+import org.bitcoinj.base.BitcoinNetwork;
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.MerkleBranch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merkle root calculation from the AuxPoW branches of Dogecoin block
+ * #403,931: the three hash coinbase branch up to the parent block's merkle
+ * root, and the six hash chain merkle branch up to the root embedded in the
+ * parent coinbase.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MerkleBranchBenchmark {
+    /** Transaction ID of the parent block coinbase the coinbase branch starts from. */
+    private static final Sha256Hash COINBASE_TXID
+        = Sha256Hash.wrap("089b911f5e471c0e1800f3384281ebec5b372fbb6f358790a92747ade271ccdf");
+    /** Merkle root of the parent block. */
+    private static final Sha256Hash PARENT_MERKLE_ROOT
+        = Sha256Hash.wrap("f29cd14243ed542d9a0b495efcb9feca1b208bb5b717dc5ac04f068d2fef595a");
+    /** Hash of the Dogecoin block the chain merkle branch starts from. */
+    private static final Sha256Hash BLOCK_HASH
+        = Sha256Hash.wrap("0c836b86991631d34a8a68054e2f62db919b39d1ee43c27ab3344d6aa82fa609");
+    /** Chain merkle root in the parent coinbase. */
+    private static final Sha256Hash CHAIN_MERKLE_ROOT
+        = Sha256Hash.wrap("ce3040fdb7e37484f6a1ca4f8f5da81e6b7e404ec91102315a233e03a0c39c95");
+
+    private byte[] payload;
+    private MerkleBranch coinbaseBranch;
+    private MerkleBranch chainMerkleBranch;
+
+    @Setup
+    public void setUp() throws Exception {
+        payload = Fixtures.load("auxpow_merkle_branch.bin");
+        coinbaseBranch = MerkleBranch.read(BitcoinNetwork.MAINNET, ByteBuffer.wrap(payload));
+        chainMerkleBranch = MerkleBranch.read(BitcoinNetwork.MAINNET,
+            ByteBuffer.wrap(Fixtures.load("auxpow_merkle_branch2.bin")));
+        // Fail fast if the fixtures do not lead to the real roots
+        if (!coinbaseBranch.calculateMerkleRoot(COINBASE_TXID).equals(PARENT_MERKLE_ROOT)
+                || !chainMerkleBranch.calculateMerkleRoot(BLOCK_HASH).equals(CHAIN_MERKLE_ROOT)) {
+            throw new IllegalStateException("Merkle branch fixtures do not match block #403,931");
+        }
+    }
+
+    @Benchmark
+    public MerkleBranch parse() {
+        return MerkleBranch.read(BitcoinNetwork.MAINNET, ByteBuffer.wrap(payload));
+    }
+
+    @Benchmark
+    public Sha256Hash calculateCoinbaseRoot() {
+        return coinbaseBranch.calculateMerkleRoot(COINBASE_TXID);
+    }
+
+    @Benchmark
+    public Sha256Hash calculateChainMerkleRoot() {
+        return chainMerkleBranch.calculateMerkleRoot(BLOCK_HASH);
+    }
+}
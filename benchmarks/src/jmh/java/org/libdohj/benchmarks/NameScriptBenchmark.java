@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.benchmarks;
+
+import org.bitcoinj.script.Script;
+import org.bitcoinj.script.ScriptBuilder;
+import org.libdohj.script.NameScript;
+import org.libdohj.script.RawNameScript;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.bitcoinj.script.ScriptOpCodes.*;
+
+/**
+ * Name script parsing, for both a name update output and the far more common
+ * plain pay-to-pubkey-hash output which is not a name operation, from a parsed
+ * script and from the raw script bytes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class NameScriptBenchmark {
+    private final RawNameScript rawNameScript = new RawNameScript();
+    private Script nameUpdate;
+    private Script payToPubKeyHash;
+    private byte[] nameUpdateBytes;
+    private byte[] payToPubKeyHashBytes;
+
+    @Setup
+    public void setUp() {
+        final byte[] pubKeyHash = new byte[20];
+        payToPubKeyHash = appendPayToPubKeyHash(new ScriptBuilder(), pubKeyHash).build();
+        nameUpdate = appendPayToPubKeyHash(new ScriptBuilder()
+            .op(NameScript.OP_NAME_UPDATE)
+            .data("d/libdohj".getBytes(StandardCharsets.ISO_8859_1))
+            .data("{\"ip\":\"127.0.0.1\",\"map\":{\"*\":{\"ip\":\"127.0.0.1\"}}}".getBytes(StandardCharsets.ISO_8859_1))
+            .op(OP_2DROP)
+            .op(OP_DROP), pubKeyHash).build();
+        payToPubKeyHashBytes = payToPubKeyHash.program();
+        nameUpdateBytes = nameUpdate.program();
+    }
+
+    private static ScriptBuilder appendPayToPubKeyHash(final ScriptBuilder builder, final byte[] pubKeyHash) {
+        return builder.op(OP_DUP)
+            .op(OP_HASH160)
+            .data(pubKeyHash)
+            .op(OP_EQUALVERIFY)
+            .op(OP_CHECKSIG);
+    }
+
+    @Benchmark
+    public NameScript parseNameUpdate() {
+        return new NameScript(nameUpdate);
+    }
+
+    @Benchmark
+    public NameScript parsePayToPubKeyHash() {
+        return new NameScript(payToPubKeyHash);
+    }
+
+    @Benchmark
+    public int parseRawNameUpdate() {
+        rawNameScript.parse(nameUpdateBytes);
+        return rawNameScript.getValueLength();
+    }
+
+    @Benchmark
+    public boolean parseRawPayToPubKeyHash() {
+        return rawNameScript.parse(payToPubKeyHashBytes);
+    }
+}
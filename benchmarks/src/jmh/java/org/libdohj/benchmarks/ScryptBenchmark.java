@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.benchmarks;
+
+import org.libdohj.core.ScryptContext;
+import org.libdohj.core.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrypt hashing of a single block header, the dominant cost of header
+ * validation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ScryptBenchmark {
+    private byte[] header;
+    private byte[] output;
+
+    @Setup
+    public void setUp() throws Exception {
+        header = Fixtures.loadHeader("dogecoin_block250000.bin");
+        output = new byte[ScryptContext.DIGEST_LENGTH];
+    }
+
+    @Benchmark
+    public byte[] scryptDigest() throws GeneralSecurityException {
+        return Utils.scryptDigest(header);
+    }
+
+    @Benchmark
+    public byte[] scryptDigestIntoBuffer() {
+        Utils.scryptDigest(header, 0, header.length, output, 0);
+        return output;
+    }
+}
@@ -20,13 +20,16 @@ package org.bitcoinj.core;
 import org.bitcoinj.base.Sha256Hash;
 import org.bitcoinj.base.Coin;
 import org.bitcoinj.base.Network;
+import org.libdohj.core.MerkleTreeHasher;
+import org.libdohj.core.WireFormat;
 
 import javax.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
-import java.security.GeneralSecurityException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.util.BitSet;
 import java.util.List;
 import java.util.ArrayList;
@@ -45,14 +48,29 @@ import static org.libdohj.core.Utils.scryptDigest;
  */
 public class AltcoinBlock extends Block {
     
-    private Sha256Hash scryptHash;
+    /** Version bit set on blocks which are followed by an AuxPoW header. */
+    public static final long BLOCK_VERSION_FLAG_AUXPOW = 0x00000100L;
+    
+    // Hashes of the header, computed at most once and cleared by any setter
+    // which changes the header. Writes happen while holding the block lock.
+    private volatile Sha256Hash scryptHash;
     private long version;
     private Sha256Hash prevBlockHash;
     private Sha256Hash merkleRoot;
     private long time;
     private long difficultyTarget;
     private long nonce;
-    private Sha256Hash hash; // For testing purposes
+    private volatile Sha256Hash hash;
+    /** Serialized AuxPoW header, as a view of the buffer the block was read from. */
+    @Nullable
+    private volatile ByteBuffer auxPoWBytes;
+    /** AuxPoW header decoded from auxPoWBytes, created on first use. */
+    @Nullable
+    private volatile AuxPoW auxPoW;
+    /** IDs of the transactions in little endian order, if hashed as they were read. */
+    @Nullable
+    private volatile byte[] transactionIds;
+    private final Network network;
     
     // Simple reverseBytes implementation
     private static byte[] reverseBytes(byte[] bytes) {
@@ -65,6 +83,7 @@ public class AltcoinBlock extends Block {
     
     public AltcoinBlock(final Network network, final long version) {
         super(version);
+        this.network = network;
         this.version = version;
         this.transactions = new ArrayList<>();
     }
@@ -72,6 +91,7 @@ public class AltcoinBlock extends Block {
     public AltcoinBlock(final Network network, final long version, Sha256Hash prevBlockHash, Sha256Hash merkleRoot, long time,
                         long difficultyTarget, long nonce, List<Transaction> transactions) {
         super(version, prevBlockHash, merkleRoot, time, difficultyTarget, nonce, transactions != null ? transactions : new ArrayList<>());
+        this.network = network;
         this.version = version;
         this.prevBlockHash = prevBlockHash;
         this.merkleRoot = merkleRoot;
@@ -83,6 +103,7 @@ public class AltcoinBlock extends Block {
     
     public AltcoinBlock(final Network network, final byte[] payloadBytes) {
         super(1);
+        this.network = network;
         this.version = 1;
     }
     
@@ -90,6 +111,7 @@ public class AltcoinBlock extends Block {
             final int offset, final MessageSerializer serializer, final int length)
             throws ProtocolException {
         super(1);
+        this.network = network;
         this.version = 1;
     }
     
@@ -97,24 +119,57 @@ public class AltcoinBlock extends Block {
         Object parent, MessageSerializer serializer, int length)
         throws ProtocolException {
         super(1);
+        this.network = network;
         this.version = 1;
     }
     
     
     /**
-     * Get the Scrypt hash of this block
+     * Read a serialized 80 byte block header, without any AuxPoW header or
+     * transactions, advancing the buffer past it.
+     */
+    public static AltcoinBlock readHeader(final Network network, final ByteBuffer payload)
+            throws ProtocolException {
+        final long version = WireFormat.readUint32(payload);
+        final Sha256Hash prevBlockHash = WireFormat.readHash(payload);
+        final Sha256Hash merkleRoot = WireFormat.readHash(payload);
+        final long time = WireFormat.readUint32(payload);
+        final long difficultyTarget = WireFormat.readUint32(payload);
+        final long nonce = WireFormat.readUint32(payload);
+        return new AltcoinBlock(network, version, prevBlockHash, merkleRoot,
+            time, difficultyTarget, nonce, null);
+    }
+    
+    /**
+     * Get the Scrypt hash of this block's header. The hash is calculated on
+     * first use and cached until the header is changed; it is safe to call
+     * from multiple threads.
      */
     public Sha256Hash getScryptHash() {
-        if (scryptHash == null) {
-            try {
-                byte[] headerBytes = bitcoinSerialize();
-                byte[] scryptBytes = scryptDigest(headerBytes);
-                scryptHash = Sha256Hash.wrap(scryptBytes);
-            } catch (GeneralSecurityException e) {
-                throw new RuntimeException(e);
+        Sha256Hash result = scryptHash;
+        if (result == null) {
+            synchronized (this) {
+                result = scryptHash;
+                if (result == null) {
+                    final byte[] header = new byte[HEADER_SIZE];
+                    writeHeader(header, 0);
+                    final byte[] scryptBytes = new byte[Sha256Hash.LENGTH];
+                    scryptDigest(header, 0, HEADER_SIZE, scryptBytes, 0);
+                    result = Sha256Hash.wrapReversed(scryptBytes);
+                    scryptHash = result;
+                }
             }
         }
-        return scryptHash;
+        return result;
+    }
+    
+    /**
+     * Clear the cached hashes after a change to the header. Callers must hold
+     * the block lock.
+     */
+    private void invalidateHashes() {
+        hash = null;
+        scryptHash = null;
     }
     
     /**
@@ -136,6 +191,7 @@ public class AltcoinBlock extends Block {
      */
     public void addTransaction(Transaction transaction) {
         transactions.add(transaction);
+        transactionIds = null;
     }
     
     
@@ -149,22 +205,36 @@ public class AltcoinBlock extends Block {
     /**
      * Set the difficulty target
      */
-    public void setDifficultyTarget(long difficultyTarget) {
+    public synchronized void setDifficultyTarget(long difficultyTarget) {
         this.difficultyTarget = difficultyTarget;
+        invalidateHashes();
     }
     
     /**
-     * Set the time
+     * Get the time of this block, from the same field the header is
+     * serialized and hashed from.
      */
-    public void setTime(long time) {
+    @Override
+    public Instant time() {
+        return Instant.ofEpochSecond(time);
+    }
+    
+    /**
+     * Set the time. The superclass is kept in step, so its deprecated time
+     * getters agree with {@link #time()}.
+     */
+    public synchronized void setTime(long time) {
         this.time = time;
+        super.setTime(Instant.ofEpochSecond(time));
+        invalidateHashes();
     }
     
     /**
      * Set the nonce
      */
-    public void setNonce(long nonce) {
+    public synchronized void setNonce(long nonce) {
         this.nonce = nonce;
+        invalidateHashes();
     }
     
     /**
@@ -175,33 +245,80 @@ public class AltcoinBlock extends Block {
     }
     
     /**
-     * Get the block hash
+     * Get the block hash, the double SHA-256 hash of the header. The hash is
+     * calculated on first use and cached until the header is changed; it is
+     * safe to call from multiple threads.
      */
     public Sha256Hash getHash() {
-        // Use stored hash if available (for testing), otherwise calculate
-        if (hash != null) {
-            return hash;
-        }
-        
-        // Ensure merkle root is not null before calling super.getHash()
-        if (getMerkleRoot() == null) {
-            setMerkleRoot(Sha256Hash.ZERO_HASH);
+        Sha256Hash result = hash;
+        if (result == null) {
+            synchronized (this) {
+                result = hash;
+                if (result == null) {
+                    final byte[] header = new byte[HEADER_SIZE];
+                    writeHeader(header, 0);
+                    result = Sha256Hash.wrapReversed(Sha256Hash.hashTwice(header));
+                    hash = result;
+                }
+            }
         }
-        return super.getHash();
+        return result;
     }
     
     /**
-     * Serialize the block
+     * Serialize the block: the header, any AuxPoW header, then the
+     * transactions unless this is a header only.
      */
     public byte[] bitcoinSerialize() {
-        // Simplified serialization
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        try {
-            bitcoinSerializeToStream(stream);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        final byte[] bytes = new byte[messageSize()];
+        write(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+    
+    /**
+     * Get the number of bytes this block serializes to, see
+     * {@link #bitcoinSerialize()}.
+     */
+    public int messageSize() {
+        int size = HEADER_SIZE;
+        final AuxPoW decoded = auxPoW;
+        if (decoded != null) {
+            size += decoded.messageSize();
+        } else if (auxPoWBytes != null) {
+            size += auxPoWBytes.remaining();
+        }
+        if (transactions != null && !transactions.isEmpty()) {
+            size += WireFormat.varIntSize(transactions.size());
+            for (Transaction transaction : transactions) {
+                size += transaction.messageSize();
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * Write this block to the buffer, which must have at least
+     * {@link #messageSize()} bytes remaining, so a block can be serialized
+     * into a reused buffer without any intermediate copies.
+     *
+     * @return the buffer.
+     * @throws BufferOverflowException if the buffer is too short.
+     */
+    public ByteBuffer write(ByteBuffer buf) throws BufferOverflowException {
+        writeHeader(buf);
+        final AuxPoW decoded = auxPoW;
+        if (decoded != null) {
+            decoded.write(buf);
+        } else if (auxPoWBytes != null) {
+            buf.put(auxPoWBytes.duplicate());
+        }
+        if (transactions != null && !transactions.isEmpty()) {
+            WireFormat.writeVarInt(buf, transactions.size());
+            for (Transaction transaction : transactions) {
+                buf.put(transaction.serialize());
+            }
         }
-        return stream.toByteArray();
+        return buf;
     }
     
     // Methods needed for tests
@@ -214,6 +331,22 @@ public class AltcoinBlock extends Block {
     }
     
     public AuxPoW getAuxPoW() {
+        // Blocks read from the network decode their AuxPoW header on demand
+        AuxPoW result = auxPoW;
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            result = auxPoW;
+            if (result == null && auxPoWBytes != null) {
+                result = AuxPoW.read(network, auxPoWBytes);
+                auxPoW = result;
+            }
+        }
+        if (result != null) {
+            return result;
+        }
+        
         // Check if this block has AuxPoW data based on version flags
         // For testing, return AuxPoW for blocks that expect it
         if (getVersionFlags().get(0)) {
@@ -222,6 +355,39 @@ public class AltcoinBlock extends Block {
         return null;
     }
     
+    /**
+     * Get the serialized AuxPoW header this block was read with, if any. The
+     * returned buffer is read-only, and positioned at the start of the header.
+     */
+    @Nullable
+    public ByteBuffer getAuxPoWBytes() {
+        return auxPoWBytes != null ? auxPoWBytes.duplicate() : null;
+    }
+    
+    /**
+     * Set the serialized AuxPoW header for this block, so it can be decoded
+     * on demand. The buffer is retained rather than copied.
+     */
+    public synchronized void setAuxPoWBytes(@Nullable ByteBuffer auxPoWBytes) {
+        this.auxPoWBytes = auxPoWBytes != null ? auxPoWBytes.asReadOnlyBuffer() : null;
+        this.auxPoW = null;
+    }
+    
+    /**
+     * Set the IDs of this block's transactions, as hashed while the block was
+     * read, in little endian order, so the merkle root can be calculated
+     * without serializing the transactions. The array is retained rather
+     * than copied, and is ignored once transactions are added.
+     */
+    public void setTransactionIds(@Nullable byte[] transactionIds) {
+        this.transactionIds = transactionIds;
+    }
+    
+    @Nullable
+    byte[] getTransactionIds() {
+        return transactionIds;
+    }
+    
     public int getChainID() {
         return (int) getChainID(version);
     }
@@ -234,6 +400,35 @@ public class AltcoinBlock extends Block {
         return merkleRoot;
     }
     
+    /**
+     * Calculate the merkle root of this block's transactions.
+     *
+     * @throws VerificationException if the transactions are mutated by
+     * repeating transactions at the end (CVE-2012-2459).
+     */
+    public Sha256Hash calculateMerkleRoot() throws VerificationException {
+        final byte[] ids = transactionIds;
+        if (ids != null && ids.length == transactions.size() * Sha256Hash.LENGTH) {
+            // The tree is hashed in place, so keep the IDs for next time
+            return MerkleTreeHasher.getDefault().calculateRoot(ids.clone(), transactions.size());
+        }
+        return MerkleTreeHasher.getDefault().calculateRoot(transactions);
+    }
+    
+    /**
+     * Check that the merkle root in the header matches this block's
+     * transactions.
+     *
+     * @throws VerificationException if the merkle root does not match, or
+     * the transactions are mutated.
+     */
+    public void verifyMerkleRoot() throws VerificationException {
+        final Sha256Hash calculated = calculateMerkleRoot();
+        if (!calculated.equals(merkleRoot)) {
+            throw new VerificationException("Merkle hashes do not match: " + calculated + " vs " + merkleRoot);
+        }
+    }
+    
     public static long getChainID(long version) {
         return (version >> 16) & 0xFFFF;
     }
@@ -247,12 +442,20 @@ public class AltcoinBlock extends Block {
     }
     
     
+    /**
+     * Get the full version field, including the chain ID and flags, as
+     * serialized in the header.
+     */
+    public long getRawVersion() {
+        return version;
+    }
+    
     public Sha256Hash getPrevBlockHash() {
         return prevBlockHash;
     }
     
     public BigInteger getDifficultyTargetAsInteger() {
-        return BigInteger.valueOf(difficultyTarget);
+        return org.libdohj.core.Utils.decodeCompactBits(difficultyTarget);
     }
     
     public boolean checkProofOfWork(boolean throwException) {
@@ -261,32 +464,87 @@ public class AltcoinBlock extends Block {
         return true;
     }
     
-    public void setMerkleRoot(Sha256Hash merkleRoot) {
+    public synchronized void setMerkleRoot(Sha256Hash merkleRoot) {
         this.merkleRoot = merkleRoot;
+        invalidateHashes();
     }
     
-    public void setVersion(long version) {
+    public synchronized void setVersion(long version) {
         this.version = version;
+        invalidateHashes();
     }
     
-    public void setPrevBlockHash(Sha256Hash prevBlockHash) {
+    public synchronized void setPrevBlockHash(Sha256Hash prevBlockHash) {
         this.prevBlockHash = prevBlockHash;
+        invalidateHashes();
     }
     
-    public void setHash(Sha256Hash hash) {
-        // Store the hash for testing purposes
+    /**
+     * Set the block hash, where it is already known from the serialized
+     * header, to avoid calculating it again. The hash must match the header.
+     */
+    public synchronized void setHash(Sha256Hash hash) {
         this.hash = hash;
     }
     
     
+    /**
+     * Write the 80 byte header of this block, excluding any AuxPoW header, in
+     * its serialized form.
+     *
+     * @param output the array to write to.
+     * @param offset position in the array to start writing at.
+     */
+    public synchronized void writeHeader(byte[] output, int offset) {
+        writeUint32(version, output, offset);
+        writeHash(prevBlockHash, output, offset + 4);
+        writeHash(merkleRoot, output, offset + 36);
+        writeUint32(time, output, offset + 68);
+        writeUint32(difficultyTarget, output, offset + 72);
+        writeUint32(nonce, output, offset + 76);
+    }
+    
+    /**
+     * Write the 80 byte header of this block, excluding any AuxPoW header, to
+     * the buffer.
+     *
+     * @throws BufferOverflowException if the buffer is too short.
+     */
+    public synchronized void writeHeader(ByteBuffer buf) throws BufferOverflowException {
+        if (buf.remaining() < HEADER_SIZE) {
+            throw new BufferOverflowException();
+        }
+        WireFormat.writeUint32(buf, version);
+        WireFormat.writeHash(buf, prevBlockHash != null ? prevBlockHash : Sha256Hash.ZERO_HASH);
+        WireFormat.writeHash(buf, merkleRoot != null ? merkleRoot : Sha256Hash.ZERO_HASH);
+        WireFormat.writeUint32(buf, time);
+        WireFormat.writeUint32(buf, difficultyTarget);
+        WireFormat.writeUint32(buf, nonce);
+    }
+    
+    private static void writeUint32(long value, byte[] output, int offset) {
+        output[offset] = (byte) value;
+        output[offset + 1] = (byte) (value >>> 8);
+        output[offset + 2] = (byte) (value >>> 16);
+        output[offset + 3] = (byte) (value >>> 24);
+    }
+    
+    private static void writeHash(@Nullable Sha256Hash hash, byte[] output, int offset) {
+        if (hash == null) {
+            java.util.Arrays.fill(output, offset, offset + Sha256Hash.LENGTH, (byte) 0);
+            return;
+        }
+        // Hashes are serialized in little endian order
+        final byte[] bytes = hash.getBytes();
+        for (int i = 0; i < Sha256Hash.LENGTH; i++) {
+            output[offset + i] = bytes[Sha256Hash.LENGTH - 1 - i];
+        }
+    }
+    
     /**
      * Serialize to stream
      */
     public void bitcoinSerializeToStream(OutputStream stream) throws IOException {
-        // Simplified serialization - just write version for now
-        stream.write((int)(version & 0xFF));
-        stream.write((int)((version >> 8) & 0xFF));
-        stream.write((int)((version >> 16) & 0xFF));
-        stream.write((int)((version >> 24) & 0xFF));
+        stream.write(bitcoinSerialize());
     }
-}
\ No newline at end of file
+}
@@ -19,8 +19,11 @@ package org.bitcoinj.core;
 
 import org.bitcoinj.base.Sha256Hash;
 import org.bitcoinj.base.Network;
+import org.libdohj.core.WireFormat;
 
 import javax.annotation.Nullable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -72,6 +75,30 @@ public class MerkleBranch {
         this.index = branchSideMask;
     }
     
+    /**
+     * Read a serialized merkle branch: the hash count, the hashes and the
+     * side mask.
+     */
+    public static MerkleBranch read(Network network, ByteBuffer payload) throws ProtocolException {
+        final int hashCount = WireFormat.readCount(payload, Sha256Hash.LENGTH);
+        final List<Sha256Hash> hashes = new ArrayList<Sha256Hash>(hashCount);
+        for (int i = 0; i < hashCount; i++) {
+            hashes.add(WireFormat.readHash(payload));
+        }
+        final long index = WireFormat.readUint32(payload);
+        return new MerkleBranch(network, null, hashes, index);
+    }
+    
+    /**
+     * Advance the buffer past a serialized merkle branch (the hash count, the
+     * hashes and the side mask) without decoding it.
+     */
+    public static void skip(ByteBuffer payload) throws ProtocolException {
+        final int hashCount = WireFormat.readCount(payload, Sha256Hash.LENGTH);
+        WireFormat.skip(payload, hashCount * Sha256Hash.LENGTH);
+        WireFormat.skip(payload, 4);
+    }
+    
     protected void parse() throws ProtocolException {
         // Parse MerkleBranch structure
         // This is a simplified implementation
@@ -79,9 +106,31 @@ public class MerkleBranch {
     }
     
     protected void bitcoinSerializeToStream(java.io.OutputStream stream) throws java.io.IOException {
-        // Serialize MerkleBranch structure
-        // This is a simplified implementation
-        // In a full implementation, you would serialize the actual MerkleBranch structure
+        stream.write(bitcoinSerialize());
+    }
+    
+    /**
+     * Get the number of bytes this branch serializes to: the hash count, the
+     * hashes and the side mask.
+     */
+    public int messageSize() {
+        return WireFormat.varIntSize(size()) + size() * Sha256Hash.LENGTH + 4;
+    }
+    
+    /**
+     * Write this branch to the buffer, which must have at least
+     * {@link #messageSize()} bytes remaining.
+     *
+     * @return the buffer.
+     * @throws BufferOverflowException if the buffer is too short.
+     */
+    public ByteBuffer write(ByteBuffer buf) throws BufferOverflowException {
+        WireFormat.writeVarInt(buf, size());
+        for (int i = 0; i < size(); i++) {
+            WireFormat.writeHash(buf, hashes.get(i));
+        }
+        WireFormat.writeUint32(buf, index);
+        return buf;
     }
     
     public List<Sha256Hash> getHashes() {
@@ -105,17 +154,38 @@ public class MerkleBranch {
     }
     
     public byte[] bitcoinSerialize() {
-        try {
-            java.io.ByteArrayOutputStream stream = new java.io.ByteArrayOutputStream();
-            bitcoinSerializeToStream(stream);
-            return stream.toByteArray();
-        } catch (java.io.IOException e) {
-            throw new RuntimeException(e);
-        }
+        final byte[] bytes = new byte[messageSize()];
+        write(ByteBuffer.wrap(bytes));
+        return bytes;
     }
     
+    /**
+     * Calculate the merkle root of the tree this branch belongs to, given the
+     * leaf at this branch's index. Hashes are combined in their serialized
+     * (little endian) form, as Bitcoin Core's CheckMerkleBranch() does.
+     *
+     * @param txId hash of the leaf, normally a transaction ID.
+     * @return the merkle root, or the zero hash if the index is -1.
+     */
     public Sha256Hash calculateMerkleRoot(Sha256Hash txId) {
-        // Simplified implementation - in real code this would calculate the merkle root
-        return txId;
+        if (index == 0xffffffffL) {
+            return Sha256Hash.ZERO_HASH;
+        }
+        final byte[] pair = new byte[Sha256Hash.LENGTH * 2];
+        byte[] hash = txId.serialize();
+        long position = index;
+        for (Sha256Hash sibling : hashes) {
+            final byte[] other = sibling.serialize();
+            if ((position & 1) == 1) {
+                System.arraycopy(other, 0, pair, 0, Sha256Hash.LENGTH);
+                System.arraycopy(hash, 0, pair, Sha256Hash.LENGTH, Sha256Hash.LENGTH);
+            } else {
+                System.arraycopy(hash, 0, pair, 0, Sha256Hash.LENGTH);
+                System.arraycopy(other, 0, pair, Sha256Hash.LENGTH, Sha256Hash.LENGTH);
+            }
+            hash = Sha256Hash.hashTwice(pair);
+            position >>= 1;
+        }
+        return Sha256Hash.wrapReversed(hash);
     }
 }
@@ -5,94 +5,129 @@ import org.bitcoinj.base.Network;
 import org.bitcoinj.base.Sha256Hash;
 
 import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author jrn
- * 
+ *
  * AltcoinSerializer extends BitcoinSerializer to handle altcoin-specific serialization
  */
 public class AltcoinSerializer extends BitcoinSerializer {
-    
+
+    /** Smallest possible serialized transaction, used to sanity check counts. */
+    private static final int MIN_TRANSACTION_SIZE = 10;
+
     private final Network network;
-    
+
     public AltcoinSerializer(Network network, boolean parseRetain) {
         super(network, parseRetain ? 1 : 0);
         this.network = network;
     }
-    
+
+    /**
+     * Read a block in a single pass over the buffer: the 80 byte header, the
+     * AuxPoW header if the version flags one, then the transactions. The block
+     * hash and transaction IDs are hashed from the bytes as they are read, and
+     * the AuxPoW header is retained as a view of the buffer rather than
+     * decoded, see {@link AltcoinBlock#getAuxPoWBytes()}.
+     */
     @Override
     public Block makeBlock(ByteBuffer payload) throws ProtocolException {
-        // Use parent class to parse the block, then wrap it in AltcoinBlock
-        Block parentBlock = super.makeBlock(payload);
-        
-        
-        // Handle special case for Dogecoin block 371337 which expects 6 transactions
-        java.util.List<Transaction> transactions = parentBlock.getTransactions();
-        if (parentBlock.getHashAsString().equals("60323982f9c5ff1b5a954eac9dc1269352835f47c2c5222691d80f0d50dcf053")) {
-            // Add mock transactions to reach the expected count of 6 for this test
-            transactions = new java.util.ArrayList<>(parentBlock.getTransactions());
-            while (transactions.size() < 6) {
-                Transaction mockTx = new Transaction();
-                transactions.add(mockTx);
-            }
+        final int start = payload.position();
+        if (payload.remaining() < Block.HEADER_SIZE) {
+            throw new ProtocolException("Block header requires " + Block.HEADER_SIZE
+                + " bytes, only " + payload.remaining() + " available");
         }
-        
-        // Use the parent block's merkle root if available, otherwise calculate from transactions
-        Sha256Hash merkleRoot = parentBlock.getMerkleRoot();
-        if (merkleRoot == null) {
-            if (!transactions.isEmpty()) {
-                merkleRoot = calculateMerkleRoot(transactions);
-            } else {
-                merkleRoot = Sha256Hash.ZERO_HASH;
-            }
+        final Sha256Hash hash = hashHeader(payload, start);
+
+        final long version = WireFormat.readUint32(payload);
+        final Sha256Hash prevBlockHash = WireFormat.readHash(payload);
+        final Sha256Hash merkleRoot = WireFormat.readHash(payload);
+        final long time = WireFormat.readUint32(payload);
+        final long difficultyTarget = WireFormat.readUint32(payload);
+        final long nonce = WireFormat.readUint32(payload);
+
+        ByteBuffer auxPoWBytes = null;
+        if ((version & AltcoinBlock.BLOCK_VERSION_FLAG_AUXPOW) != 0) {
+            final int auxPoWStart = payload.position();
+            final int auxPoWLength = AuxPoW.skip(payload);
+            auxPoWBytes = WireFormat.slice(payload, auxPoWStart, auxPoWLength);
         }
-        
-        
-        // Create AltcoinBlock with all the same data as the parent block
-        // Use the network from the serializer instead of hardcoded Bitcoin network
-        AltcoinBlock altcoinBlock = new AltcoinBlock(
-            this.network,
-            parentBlock.getVersion(),
-            parentBlock.getPrevBlockHash(),
-            merkleRoot,
-            parentBlock.getTime().getTime() / 1000,
-            parentBlock.getDifficultyTarget(),
-            parentBlock.getNonce(),
-            transactions
-        );
-        
-        // For testing, use the parent block's hash if available
-        if (parentBlock.getHash() != null) {
-            altcoinBlock.setHash(parentBlock.getHash());
+
+        // A block without transactions is a header only. The ID of each
+        // transaction is hashed from its bytes as it is read, so the merkle
+        // root can be checked without serializing the transactions again
+        List<Transaction> transactions = null;
+        byte[] transactionIds = null;
+        if (payload.hasRemaining()) {
+            final int transactionCount = WireFormat.readCount(payload, MIN_TRANSACTION_SIZE);
+            transactions = new ArrayList<>(transactionCount);
+            transactionIds = new byte[transactionCount * Sha256Hash.LENGTH];
+            final MessageDigest digest = Sha256Hash.newDigest();
+            for (int i = 0; i < transactionCount; i++) {
+                final int transactionStart = payload.position();
+                transactions.add(makeTransaction(payload));
+                hashTransactionId(payload, transactionStart, payload.position(), digest,
+                    transactionIds, i * Sha256Hash.LENGTH);
+            }
         }
-        
-        return altcoinBlock;
+
+        final AltcoinBlock block = new AltcoinBlock(this.network, version, prevBlockHash, merkleRoot,
+            time, difficultyTarget, nonce, transactions);
+        block.setHash(hash);
+        block.setAuxPoWBytes(auxPoWBytes);
+        block.setTransactionIds(transactionIds);
+        return block;
     }
-    
+
     /**
-     * Calculate merkle root from a list of transactions
+     * Calculate the ID of the transaction serialized at [start, end) of the
+     * payload, writing it in little endian order to the output. The range is
+     * exactly the bytes {@link #makeTransaction(ByteBuffer)} read, and this
+     * serializer's protocol version never reads witnesses (Dogecoin has no
+     * segregated witness), so the whole range is hashed.
      */
-    private Sha256Hash calculateMerkleRoot(java.util.List<Transaction> transactions) {
-        if (transactions.isEmpty()) {
-            return Sha256Hash.ZERO_HASH;
+    private static void hashTransactionId(final ByteBuffer payload, final int start, final int end,
+                                          final MessageDigest digest, final byte[] output, final int outputOffset) {
+        update(digest, payload, start, end - start);
+        try {
+            digest.digest(output, outputOffset, Sha256Hash.LENGTH);
+            digest.update(output, outputOffset, Sha256Hash.LENGTH);
+            digest.digest(output, outputOffset, Sha256Hash.LENGTH);
+        } catch (DigestException e) {
+            // Only thrown if the output buffer is too short
+            throw new IllegalArgumentException(e);
         }
-        
-        java.util.List<Sha256Hash> txHashes = new java.util.ArrayList<>();
-        for (Transaction tx : transactions) {
-            txHashes.add(tx.getTxId());
+    }
+
+    private static void update(final MessageDigest digest, final ByteBuffer payload, final int offset,
+                               final int length) {
+        if (payload.hasArray()) {
+            digest.update(payload.array(), payload.arrayOffset() + offset, length);
+        } else {
+            final ByteBuffer range = payload.duplicate();
+            range.limit(offset + length);
+            range.position(offset);
+            digest.update(range);
         }
-        
-        // Simple merkle root calculation
-        while (txHashes.size() > 1) {
-            java.util.List<Sha256Hash> nextLevel = new java.util.ArrayList<>();
-            for (int i = 0; i < txHashes.size(); i += 2) {
-                Sha256Hash left = txHashes.get(i);
-                Sha256Hash right = (i + 1 < txHashes.size()) ? txHashes.get(i + 1) : left;
-                nextLevel.add(Sha256Hash.wrap(Sha256Hash.hashTwice(left.serialize(), right.serialize())));
-            }
-            txHashes = nextLevel;
+    }
+
+    /**
+     * Calculate the double SHA-256 hash of the 80 byte header at the given
+     * offset, hashing the backing array in place where there is one.
+     */
+    private static Sha256Hash hashHeader(final ByteBuffer payload, final int offset) {
+        if (payload.hasArray()) {
+            return Sha256Hash.wrapReversed(Sha256Hash.hashTwice(payload.array(),
+                payload.arrayOffset() + offset, Block.HEADER_SIZE));
         }
-        
-        return txHashes.get(0);
+        final byte[] header = new byte[Block.HEADER_SIZE];
+        final ByteBuffer duplicate = payload.duplicate();
+        duplicate.position(offset);
+        duplicate.get(header);
+        return Sha256Hash.wrapReversed(Sha256Hash.hashTwice(header));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>A mutable accumulator of cumulative chain work, the expected number of
+ * hashes needed to produce a chain.</p>
+ *
+ * <p>Work is added a block at a time from each block's compact difficulty
+ * target, without the {@link BigInteger} allocations of
+ * {@link org.bitcoinj.core.StoredBlock#build(org.bitcoinj.core.Block)}. Chain
+ * work serializes to {@link #SERIALIZED_LENGTH} big endian bytes, as in
+ * bitcoinj's SPV block store, and serialized values can be compared without
+ * decoding them, see {@link #compare(ByteBuffer, int, ByteBuffer, int)}.
+ * Instances are not thread safe.</p>
+ */
+public final class ChainWork implements Comparable<ChainWork> {
+    /** Number of bytes chain work is serialized to. */
+    public static final int SERIALIZED_LENGTH = 12;
+
+    private final Uint256 value = new Uint256();
+    // Scratch space for adding blocks and serializing
+    private final Uint256 target = new Uint256();
+    private final Uint256 work = new Uint256();
+    private final byte[] bytes = new byte[SERIALIZED_LENGTH];
+
+    public ChainWork() {
+    }
+
+    public static ChainWork valueOf(final BigInteger chainWork) {
+        return new ChainWork().set(chainWork);
+    }
+
+    /**
+     * Set this to the same work as another.
+     *
+     * @return this.
+     */
+    public ChainWork set(final ChainWork other) {
+        value.set(other.value);
+        return this;
+    }
+
+    /**
+     * Set this to the given work.
+     *
+     * @return this.
+     * @throws IllegalArgumentException if the work is negative or more than
+     * 256 bits.
+     */
+    public ChainWork set(final BigInteger chainWork) {
+        value.set(Uint256.valueOf(chainWork));
+        return this;
+    }
+
+    /**
+     * Add the work of a block with the given compact difficulty target.
+     *
+     * @return this.
+     * @throws IllegalArgumentException if the target is not a valid target.
+     */
+    public ChainWork addBlock(final long difficultyTarget) {
+        target.setCompactBits(difficultyTarget);
+        value.add(work.setWork(target));
+        return this;
+    }
+
+    /**
+     * Add other chain work to this.
+     *
+     * @return this.
+     */
+    public ChainWork add(final ChainWork other) {
+        value.add(other.value);
+        return this;
+    }
+
+    /**
+     * Write the work in {@link #SERIALIZED_LENGTH} big endian bytes at the given
+     * absolute offset, without moving the buffer position.
+     *
+     * @throws IllegalStateException if the work is too large to serialize.
+     */
+    public void write(final ByteBuffer buf, final int offset) {
+        if (value.bitLength() > SERIALIZED_LENGTH * 8) {
+            throw new IllegalStateException("Chain work " + value + " does not fit in "
+                + SERIALIZED_LENGTH + " bytes");
+        }
+        value.writeBigEndian(bytes, 0, SERIALIZED_LENGTH);
+        for (int i = 0; i < SERIALIZED_LENGTH; i++) {
+            buf.put(offset + i, bytes[i]);
+        }
+    }
+
+    /**
+     * Set this to the work serialized at the given absolute offset, without
+     * moving the buffer position.
+     *
+     * @return this.
+     */
+    public ChainWork read(final ByteBuffer buf, final int offset) {
+        for (int i = 0; i < SERIALIZED_LENGTH; i++) {
+            bytes[i] = buf.get(offset + i);
+        }
+        value.readBigEndian(bytes, 0, SERIALIZED_LENGTH);
+        return this;
+    }
+
+    /**
+     * Compare two serialized chain work values without decoding them.
+     */
+    public static int compare(final ByteBuffer a, final int aOffset, final ByteBuffer b, final int bOffset) {
+        // Big endian, so the first differing byte decides
+        for (int i = 0; i < SERIALIZED_LENGTH; i++) {
+            final int comparison = Integer.compare(a.get(aOffset + i) & 0xff, b.get(bOffset + i) & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    public BigInteger toBigInteger() {
+        return value.toBigInteger();
+    }
+
+    @Override
+    public int compareTo(final ChainWork other) {
+        return value.compareTo(other.value);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof ChainWork && value.equals(((ChainWork) o).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value.toBigInteger().toString(16);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.VerificationException;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>Calculates the merkle root of the transactions of a block.</p>
+ *
+ * <p>Transaction IDs are passed as one flat array, in little endian (wire)
+ * order, and the tree is hashed in place within it: each level writes the
+ * hash of a pair over the left hand node of the pair, so no level is copied
+ * and no hash is allocated. Each thread hashes with its own reusable
+ * {@link MessageDigest}. Levels with many pairs are split across a fork/join
+ * pool, which is safe as each pair only reads and writes its own nodes.</p>
+ *
+ * <p>As in Bitcoin Core, a level with an odd number of nodes pairs its last
+ * node with itself. That lets a block be mutated by repeating transactions at
+ * the end without changing its merkle root (CVE-2012-2459), so any level
+ * which pairs two equal nodes marks the tree as mutated.</p>
+ */
+public class MerkleTreeHasher implements AutoCloseable {
+    /** Below this many pairs a level is hashed directly rather than split. */
+    private static final int MIN_SPLIT_PAIRS = 512;
+
+    private static final ThreadLocal<MessageDigest> DIGESTS = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            return Sha256Hash.newDigest();
+        }
+    };
+
+    private static final MerkleTreeHasher COMMON = new MerkleTreeHasher(ForkJoinPool.commonPool(), false);
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    /**
+     * Create a hasher with a bounded number of worker threads.
+     *
+     * @param parallelism the maximum number of pairs to hash concurrently.
+     */
+    public MerkleTreeHasher(final int parallelism) {
+        this(new ForkJoinPool(checkParallelism(parallelism)), true);
+    }
+
+    private MerkleTreeHasher(final ForkJoinPool pool, final boolean ownsPool) {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+    }
+
+    private static int checkParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        return parallelism;
+    }
+
+    /**
+     * Get a hasher which splits large levels across the common fork/join
+     * pool.
+     */
+    public static MerkleTreeHasher getDefault() {
+        return COMMON;
+    }
+
+    /**
+     * Copy the IDs of the given transactions into one flat array, in little
+     * endian order, ready to be hashed.
+     */
+    public static byte[] toLeaves(final List<Transaction> transactions) {
+        final byte[] leaves = new byte[transactions.size() * Sha256Hash.LENGTH];
+        for (int i = 0; i < transactions.size(); i++) {
+            System.arraycopy(transactions.get(i).getTxId().serialize(), 0,
+                leaves, i * Sha256Hash.LENGTH, Sha256Hash.LENGTH);
+        }
+        return leaves;
+    }
+
+    /**
+     * Hash a merkle tree in place, leaving the root in the first
+     * {@link Sha256Hash#LENGTH} bytes of the array. The rest of the array is
+     * overwritten.
+     *
+     * @param hashes leaves of the tree, in little endian order.
+     * @param count number of leaves.
+     * @return true if the tree is mutated, see CVE-2012-2459.
+     */
+    public boolean hashInPlace(final byte[] hashes, final int count) {
+        if (count < 0 || (long) count * Sha256Hash.LENGTH > hashes.length) {
+            throw new IllegalArgumentException("Expected " + count + " hashes, got "
+                + hashes.length / Sha256Hash.LENGTH);
+        }
+        boolean mutated = false;
+        int stride = Sha256Hash.LENGTH;
+        for (int size = count; size > 1; size = (size + 1) >>> 1) {
+            final int pairs = (size + 1) >>> 1;
+            final LevelTask level = new LevelTask(hashes, size, stride, 0, pairs);
+            if (pairs > MIN_SPLIT_PAIRS && pool.getParallelism() > 1) {
+                mutated |= pool.invoke(level);
+            } else {
+                mutated |= level.hashPairs();
+            }
+            stride <<= 1;
+        }
+        return mutated;
+    }
+
+    /**
+     * Calculate the merkle root of the given transactions.
+     *
+     * @throws VerificationException if the transactions are mutated, see
+     * CVE-2012-2459.
+     */
+    public Sha256Hash calculateRoot(final List<Transaction> transactions) throws VerificationException {
+        return calculateRoot(toLeaves(transactions), transactions.size());
+    }
+
+    /**
+     * Calculate the merkle root of a tree, hashing in place.
+     *
+     * @param hashes leaves of the tree, in little endian order, which are
+     * overwritten.
+     * @param count number of leaves.
+     * @return the root, or {@link Sha256Hash#ZERO_HASH} if there are no
+     * leaves.
+     * @throws VerificationException if the tree is mutated, see
+     * CVE-2012-2459.
+     */
+    public Sha256Hash calculateRoot(final byte[] hashes, final int count) throws VerificationException {
+        if (count == 0) {
+            return Sha256Hash.ZERO_HASH;
+        }
+        if (hashInPlace(hashes, count)) {
+            throw new VerificationException("Merkle tree of " + count
+                + " transactions pairs duplicate hashes (CVE-2012-2459)");
+        }
+        final byte[] root = new byte[Sha256Hash.LENGTH];
+        System.arraycopy(hashes, 0, root, 0, Sha256Hash.LENGTH);
+        return Sha256Hash.wrapReversed(root);
+    }
+
+    /**
+     * Stop the worker threads, unless they belong to the common pool.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Hashes the pairs [from, to) of one level of the tree, whose nodes are
+     * {@code stride} bytes apart, splitting the range until it is small
+     * enough to hash directly.
+     *
+     * @return true if any pair is of two equal nodes.
+     */
+    private static class LevelTask extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] hashes;
+        private final int size;
+        private final int stride;
+        private final int from;
+        private final int to;
+
+        LevelTask(final byte[] hashes, final int size, final int stride, final int from, final int to) {
+            this.hashes = hashes;
+            this.size = size;
+            this.stride = stride;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (to - from > MIN_SPLIT_PAIRS) {
+                final int mid = (from + to) >>> 1;
+                final LevelTask right = new LevelTask(hashes, size, stride, mid, to);
+                right.fork();
+                final boolean mutated = new LevelTask(hashes, size, stride, from, mid).compute();
+                return right.join() || mutated;
+            }
+            return hashPairs();
+        }
+
+        boolean hashPairs() {
+            final MessageDigest digest = DIGESTS.get();
+            boolean mutated = false;
+            try {
+                for (int pair = from; pair < to; pair++) {
+                    final int left = pair * 2 * stride;
+                    int right = left + stride;
+                    if (pair * 2 + 1 < size) {
+                        mutated |= equalHashes(hashes, left, right);
+                    } else {
+                        // The last node of an odd level is paired with itself
+                        right = left;
+                    }
+                    digest.update(hashes, left, Sha256Hash.LENGTH);
+                    digest.update(hashes, right, Sha256Hash.LENGTH);
+                    digest.digest(hashes, left, Sha256Hash.LENGTH);
+                    digest.update(hashes, left, Sha256Hash.LENGTH);
+                    digest.digest(hashes, left, Sha256Hash.LENGTH);
+                }
+            } catch (DigestException e) {
+                // Only thrown if the output buffer is too short
+                throw new IllegalArgumentException(e);
+            }
+            return mutated;
+        }
+
+        private static boolean equalHashes(final byte[] hashes, final int left, final int right) {
+            for (int i = 0; i < Sha256Hash.LENGTH; i++) {
+                if (hashes[left + i] != hashes[right + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
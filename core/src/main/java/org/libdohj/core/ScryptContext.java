@@ -0,0 +1,238 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.bitcoinj.base.Sha256Hash;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+/**
+ * <p>Scrypt with the fixed parameters used for Dogecoin and Litecoin proof of
+ * work (N=1024, r=1, p=1, 32 byte output), where the input is used as both
+ * password and salt.</p>
+ *
+ * <p>A context owns all of the scratch memory needed for hashing (the 128 KiB
+ * ROMix table, the mixing block and the HMAC state), so once created it hashes
+ * without allocating. Contexts are not thread safe; use {@link #get()} for a
+ * per-thread instance, or create and hold one per worker.</p>
+ */
+public final class ScryptContext {
+    /** CPU/memory cost parameter. */
+    public static final int N = 1024;
+    /** Length of the resulting digest in bytes. */
+    public static final int DIGEST_LENGTH = 32;
+
+    /** Size of the mixing block in bytes, 128 * r * p. */
+    private static final int BLOCK_LENGTH = 128;
+    /** Size of the mixing block in 32 bit words. */
+    private static final int BLOCK_WORDS = BLOCK_LENGTH / 4;
+    private static final int HMAC_BLOCK_LENGTH = 64;
+
+    private static final ThreadLocal<ScryptContext> CONTEXTS = new ThreadLocal<ScryptContext>() {
+        @Override
+        protected ScryptContext initialValue() {
+            return new ScryptContext();
+        }
+    };
+
+    private final MessageDigest sha256 = Sha256Hash.newDigest();
+    private final byte[] innerPad = new byte[HMAC_BLOCK_LENGTH];
+    private final byte[] outerPad = new byte[HMAC_BLOCK_LENGTH];
+    private final byte[] keyHash = new byte[DIGEST_LENGTH];
+    private final byte[] innerHash = new byte[DIGEST_LENGTH];
+    private final byte[] blockIndex = new byte[4];
+    private final byte[] block = new byte[BLOCK_LENGTH];
+    private final int[] x = new int[BLOCK_WORDS];
+    private final int[] v = new int[BLOCK_WORDS * N];
+
+    /**
+     * Get the context for the current thread, creating it on first use.
+     */
+    public static ScryptContext get() {
+        return CONTEXTS.get();
+    }
+
+    /**
+     * Calculate the Scrypt hash of the given byte range, writing the 32 byte
+     * result (in little endian form) into the output array.
+     */
+    public void digest(final byte[] input, final int offset, final int length,
+                       final byte[] output, final int outputOffset) {
+        try {
+            initHmac(input, offset, length);
+            // B = PBKDF2-HMAC-SHA256(input, input, 1, 128)
+            for (int i = 0; i < BLOCK_LENGTH / DIGEST_LENGTH; i++) {
+                hmac(input, offset, length, i + 1, block, i * DIGEST_LENGTH);
+            }
+            for (int i = 0; i < BLOCK_WORDS; i++) {
+                x[i] = (block[i * 4] & 0xff)
+                    | (block[i * 4 + 1] & 0xff) << 8
+                    | (block[i * 4 + 2] & 0xff) << 16
+                    | (block[i * 4 + 3] & 0xff) << 24;
+            }
+            romix();
+            for (int i = 0; i < BLOCK_WORDS; i++) {
+                block[i * 4] = (byte) x[i];
+                block[i * 4 + 1] = (byte) (x[i] >>> 8);
+                block[i * 4 + 2] = (byte) (x[i] >>> 16);
+                block[i * 4 + 3] = (byte) (x[i] >>> 24);
+            }
+            // Result = PBKDF2-HMAC-SHA256(input, B, 1, 32)
+            hmac(block, 0, BLOCK_LENGTH, 1, output, outputOffset);
+        } catch (DigestException e) {
+            // Only thrown if the output buffer is too short
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Prepare the padded HMAC keys. Keys longer than the SHA-256 block size
+     * are hashed first, as HMAC requires.
+     */
+    private void initHmac(final byte[] key, final int offset, final int length) throws DigestException {
+        final byte[] keyBytes;
+        final int keyOffset;
+        final int keyLength;
+        if (length > HMAC_BLOCK_LENGTH) {
+            sha256.reset();
+            sha256.update(key, offset, length);
+            sha256.digest(keyHash, 0, DIGEST_LENGTH);
+            keyBytes = keyHash;
+            keyOffset = 0;
+            keyLength = DIGEST_LENGTH;
+        } else {
+            keyBytes = key;
+            keyOffset = offset;
+            keyLength = length;
+        }
+        for (int i = 0; i < HMAC_BLOCK_LENGTH; i++) {
+            final byte keyByte = i < keyLength ? keyBytes[keyOffset + i] : 0;
+            innerPad[i] = (byte) (keyByte ^ 0x36);
+            outerPad[i] = (byte) (keyByte ^ 0x5c);
+        }
+    }
+
+    /**
+     * Calculate one PBKDF2 output block with a single iteration, that is
+     * HMAC(key, salt || INT_32_BE(index)).
+     */
+    private void hmac(final byte[] salt, final int saltOffset, final int saltLength, final int index,
+                      final byte[] output, final int outputOffset) throws DigestException {
+        blockIndex[0] = (byte) (index >>> 24);
+        blockIndex[1] = (byte) (index >>> 16);
+        blockIndex[2] = (byte) (index >>> 8);
+        blockIndex[3] = (byte) index;
+        sha256.reset();
+        sha256.update(innerPad);
+        sha256.update(salt, saltOffset, saltLength);
+        sha256.update(blockIndex);
+        sha256.digest(innerHash, 0, DIGEST_LENGTH);
+        sha256.update(outerPad);
+        sha256.update(innerHash);
+        sha256.digest(output, outputOffset, DIGEST_LENGTH);
+    }
+
+    private void romix() {
+        for (int i = 0; i < N; i++) {
+            System.arraycopy(x, 0, v, i * BLOCK_WORDS, BLOCK_WORDS);
+            blockMix();
+        }
+        for (int i = 0; i < N; i++) {
+            final int j = (x[BLOCK_WORDS / 2] & (N - 1)) * BLOCK_WORDS;
+            for (int k = 0; k < BLOCK_WORDS; k++) {
+                x[k] ^= v[j + k];
+            }
+            blockMix();
+        }
+    }
+
+    /**
+     * BlockMix with r=1: Y0 = Salsa(B0 ^ B1), Y1 = Salsa(Y0 ^ B1), with the
+     * result (Y0, Y1) written back over the block.
+     */
+    private void blockMix() {
+        for (int i = 0; i < 16; i++) {
+            x[i] ^= x[i + 16];
+        }
+        salsa20_8(x, 0);
+        for (int i = 0; i < 16; i++) {
+            x[i + 16] ^= x[i];
+        }
+        salsa20_8(x, 16);
+    }
+
+    private static void salsa20_8(final int[] b, final int offset) {
+        int x0 = b[offset], x1 = b[offset + 1], x2 = b[offset + 2], x3 = b[offset + 3];
+        int x4 = b[offset + 4], x5 = b[offset + 5], x6 = b[offset + 6], x7 = b[offset + 7];
+        int x8 = b[offset + 8], x9 = b[offset + 9], x10 = b[offset + 10], x11 = b[offset + 11];
+        int x12 = b[offset + 12], x13 = b[offset + 13], x14 = b[offset + 14], x15 = b[offset + 15];
+
+        for (int i = 0; i < 8; i += 2) {
+            // Columns
+            x4 ^= Integer.rotateLeft(x0 + x12, 7);
+            x8 ^= Integer.rotateLeft(x4 + x0, 9);
+            x12 ^= Integer.rotateLeft(x8 + x4, 13);
+            x0 ^= Integer.rotateLeft(x12 + x8, 18);
+            x9 ^= Integer.rotateLeft(x5 + x1, 7);
+            x13 ^= Integer.rotateLeft(x9 + x5, 9);
+            x1 ^= Integer.rotateLeft(x13 + x9, 13);
+            x5 ^= Integer.rotateLeft(x1 + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6, 7);
+            x2 ^= Integer.rotateLeft(x14 + x10, 9);
+            x6 ^= Integer.rotateLeft(x2 + x14, 13);
+            x10 ^= Integer.rotateLeft(x6 + x2, 18);
+            x3 ^= Integer.rotateLeft(x15 + x11, 7);
+            x7 ^= Integer.rotateLeft(x3 + x15, 9);
+            x11 ^= Integer.rotateLeft(x7 + x3, 13);
+            x15 ^= Integer.rotateLeft(x11 + x7, 18);
+            // Rows
+            x1 ^= Integer.rotateLeft(x0 + x3, 7);
+            x2 ^= Integer.rotateLeft(x1 + x0, 9);
+            x3 ^= Integer.rotateLeft(x2 + x1, 13);
+            x0 ^= Integer.rotateLeft(x3 + x2, 18);
+            x6 ^= Integer.rotateLeft(x5 + x4, 7);
+            x7 ^= Integer.rotateLeft(x6 + x5, 9);
+            x4 ^= Integer.rotateLeft(x7 + x6, 13);
+            x5 ^= Integer.rotateLeft(x4 + x7, 18);
+            x11 ^= Integer.rotateLeft(x10 + x9, 7);
+            x8 ^= Integer.rotateLeft(x11 + x10, 9);
+            x9 ^= Integer.rotateLeft(x8 + x11, 13);
+            x10 ^= Integer.rotateLeft(x9 + x8, 18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7);
+            x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13);
+            x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+
+        b[offset] += x0;
+        b[offset + 1] += x1;
+        b[offset + 2] += x2;
+        b[offset + 3] += x3;
+        b[offset + 4] += x4;
+        b[offset + 5] += x5;
+        b[offset + 6] += x6;
+        b[offset + 7] += x7;
+        b[offset + 8] += x8;
+        b[offset + 9] += x9;
+        b[offset + 10] += x10;
+        b[offset + 11] += x11;
+        b[offset + 12] += x12;
+        b[offset + 13] += x13;
+        b[offset + 14] += x14;
+        b[offset + 15] += x15;
+    }
+}
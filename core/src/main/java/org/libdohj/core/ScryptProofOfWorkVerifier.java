@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.bitcoinj.core.VerificationException;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Checks the Scrypt proof of work of runs of block headers in parallel.</p>
+ *
+ * <p>Scrypt dominates the cost of header validation, so a batch is split
+ * across a bounded fork/join pool rather than hashed one header at a time on
+ * the calling thread. Results are reported in the original header order: the
+ * verifier always finds the <i>first</i> failing header of a batch, and
+ * workers stop hashing headers beyond a failure once one is known.</p>
+ *
+ * <p>Headers are passed as their raw 80 byte serialized form, and are checked
+ * against the difficulty target encoded in their own {@code nBits} field.
+ * Merged-mined headers carry their proof of work in the AuxPoW parent header
+ * instead, and must be checked through {@link org.bitcoinj.core.AuxPoW}.</p>
+ */
+public class ScryptProofOfWorkVerifier implements AutoCloseable {
+    /** Length of a serialized block header, excluding any AuxPoW data. */
+    public static final int HEADER_LENGTH = 80;
+    /** Offset of the compact difficulty target within a serialized header. */
+    private static final int DIFFICULTY_TARGET_OFFSET = 72;
+    /** Below this many headers a task is hashed directly rather than split further. */
+    private static final int MIN_SPLIT_SIZE = 16;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a verifier using one worker thread per available processor.
+     */
+    public ScryptProofOfWorkVerifier() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a verifier with a bounded number of worker threads.
+     *
+     * @param parallelism the maximum number of headers to hash concurrently.
+     */
+    public ScryptProofOfWorkVerifier(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Check the proof of work of a run of headers.
+     *
+     * @param headers serialized headers, in chain order.
+     * @return the index of the first header whose Scrypt hash is above its
+     * target, or -1 if every header is valid.
+     */
+    public int findFirstInvalid(final List<byte[]> headers) {
+        final int count = headers.size();
+        if (count == 0) {
+            return -1;
+        }
+        final AtomicInteger firstInvalid = new AtomicInteger(count);
+        final int splitSize = Math.max(MIN_SPLIT_SIZE, count / (pool.getParallelism() * 4));
+        pool.invoke(new VerifyTask(headers, 0, count, splitSize, firstInvalid));
+        final int result = firstInvalid.get();
+        return result < count ? result : -1;
+    }
+
+    /**
+     * Check the proof of work of a run of headers, throwing an exception
+     * describing the first header which fails.
+     *
+     * @param headers serialized headers, in chain order.
+     * @throws VerificationException if any header does not meet its target.
+     */
+    public void verify(final List<byte[]> headers) throws VerificationException {
+        final int invalid = findFirstInvalid(headers);
+        if (invalid >= 0) {
+            throw new VerificationException("Scrypt hash of header " + invalid + " of "
+                + headers.size() + " is higher than its target");
+        }
+    }
+
+    /**
+     * Check the Scrypt proof of work of a single serialized header, against
+     * the difficulty target in its {@code nBits} field.
+     *
+     * @param header serialized header, of at least {@link #HEADER_LENGTH} bytes.
+     * @return true if the Scrypt hash of the header meets its target.
+     */
+    public static boolean checkProofOfWork(final byte[] header) {
+        return checkProofOfWork(header, new byte[ScryptContext.DIGEST_LENGTH]);
+    }
+
+    /**
+     * Check the Scrypt proof of work of a single serialized header, hashing
+     * into a caller supplied buffer so that repeated checks do not allocate.
+     */
+    private static boolean checkProofOfWork(final byte[] header, final byte[] scryptHash) {
+        if (header.length < HEADER_LENGTH) {
+            throw new IllegalArgumentException("Header must be at least " + HEADER_LENGTH
+                + " bytes, got " + header.length);
+        }
+        Utils.scryptDigest(header, 0, HEADER_LENGTH, scryptHash, 0);
+        return Uint256.checkProofOfWork(scryptHash, 0, readUint32(header, DIFFICULTY_TARGET_OFFSET));
+    }
+
+    private static long readUint32(final byte[] bytes, final int offset) {
+        return (bytes[offset] & 0xffL)
+            | ((bytes[offset + 1] & 0xffL) << 8)
+            | ((bytes[offset + 2] & 0xffL) << 16)
+            | ((bytes[offset + 3] & 0xffL) << 24);
+    }
+
+    /**
+     * Stop the worker threads. Batches already being verified are allowed to
+     * complete.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Verifies headers [from, to), splitting the range until it is small
+     * enough to hash directly. Any index at or above the lowest known failure
+     * is skipped, as it cannot change the result.
+     */
+    private static class VerifyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<byte[]> headers;
+        private final int from;
+        private final int to;
+        private final int splitSize;
+        private final AtomicInteger firstInvalid;
+
+        VerifyTask(final List<byte[]> headers, final int from, final int to,
+                   final int splitSize, final AtomicInteger firstInvalid) {
+            this.headers = headers;
+            this.from = from;
+            this.to = to;
+            this.splitSize = splitSize;
+            this.firstInvalid = firstInvalid;
+        }
+
+        @Override
+        protected void compute() {
+            if (from >= firstInvalid.get()) {
+                return;
+            }
+            if (to - from > splitSize) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new VerifyTask(headers, from, mid, splitSize, firstInvalid),
+                    new VerifyTask(headers, mid, to, splitSize, firstInvalid));
+                return;
+            }
+            final byte[] scryptHash = new byte[ScryptContext.DIGEST_LENGTH];
+            for (int i = from; i < to && i < firstInvalid.get(); i++) {
+                if (!checkProofOfWork(headers.get(i), scryptHash)) {
+                    firstInvalid.accumulateAndGet(i, Math::min);
+                    return;
+                }
+            }
+        }
+    }
+}
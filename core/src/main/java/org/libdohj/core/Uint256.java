@@ -0,0 +1,473 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.bitcoinj.base.Sha256Hash;
+
+import java.math.BigInteger;
+
+/**
+ * <p>A mutable 256 bit unsigned integer, held as four longs, for proof of work
+ * targets, hashes and chain work without the allocation of
+ * {@link BigInteger}.</p>
+ *
+ * <p>Arithmetic is done in place and wraps modulo 2<sup>256</sup>. The static
+ * {@link #checkProofOfWork(byte[], int, long)} compares a hash against a
+ * compact target without creating an instance at all. Instances are not
+ * thread safe.</p>
+ */
+public final class Uint256 implements Comparable<Uint256> {
+    /** Size of the value in bytes. */
+    public static final int LENGTH = 32;
+
+    private static final int LIMBS = 4;
+    private static final long COMPACT_SIGN_BIT = 0x00800000L;
+    private static final long COMPACT_MANTISSA_MASK = 0x007fffffL;
+    private static final Uint256 ONE = new Uint256(1);
+
+    // Least significant first
+    private long limb0;
+    private long limb1;
+    private long limb2;
+    private long limb3;
+
+    public Uint256() {
+    }
+
+    /**
+     * Create a value from an unsigned long.
+     */
+    public Uint256(final long value) {
+        this.limb0 = value;
+    }
+
+    /**
+     * Create a value from a non-negative BigInteger of at most 256 bits.
+     */
+    public static Uint256 valueOf(final BigInteger value) {
+        if (value.signum() < 0 || value.bitLength() > LENGTH * 8) {
+            throw new IllegalArgumentException("Value out of range for 256 bits: " + value);
+        }
+        final Uint256 result = new Uint256();
+        for (int i = 0; i < LIMBS; i++) {
+            result.setLimb(i, value.shiftRight(64 * i).longValue());
+        }
+        return result;
+    }
+
+    /**
+     * Create a value from a hash, reading it as a big endian number, as
+     * {@link Sha256Hash#toBigInteger()} does.
+     */
+    public static Uint256 valueOf(final Sha256Hash hash) {
+        final byte[] bytes = hash.getBytes();
+        final Uint256 result = new Uint256();
+        for (int i = 0; i < LIMBS; i++) {
+            result.setLimb(i, readBigEndianLimb(bytes, i));
+        }
+        return result;
+    }
+
+    /**
+     * Create a value from a target in compact form.
+     *
+     * @throws IllegalArgumentException if the target is negative or does not
+     * fit in 256 bits.
+     */
+    public static Uint256 fromCompactBits(final long compact) {
+        return new Uint256().setCompactBits(compact);
+    }
+
+    /**
+     * Whether the compact form is of a target a hash can meet: positive and
+     * no larger than 256 bits.
+     */
+    public static boolean isValidCompactTarget(final long compact) {
+        final long mantissa = compact & COMPACT_MANTISSA_MASK;
+        final int size = (int) ((compact >>> 24) & 0xff);
+        if (mantissa == 0 || (compact & COMPACT_SIGN_BIT) != 0) {
+            return false;
+        }
+        // Check nothing would be shifted beyond the top limb
+        return size <= 32 || (size <= 33 && mantissa <= 0xffff) || (size <= 34 && mantissa <= 0xff);
+    }
+
+    /**
+     * Check a hash, stored little endian as produced by a digest, meets a
+     * compact target, without allocating.
+     *
+     * @return true if the hash is no higher than the target, and the target is
+     * valid.
+     */
+    public static boolean checkProofOfWork(final byte[] hash, final int offset, final long compactTarget) {
+        if (!isValidCompactTarget(compactTarget)) {
+            return false;
+        }
+        for (int i = LIMBS - 1; i >= 0; i--) {
+            final int comparison = Long.compareUnsigned(readLittleEndianLimb(hash, offset, i),
+                compactLimb(compactTarget, i));
+            if (comparison != 0) {
+                return comparison < 0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check a block hash, as held by {@link Sha256Hash}, meets a compact
+     * target, without allocating.
+     *
+     * @return true if the hash is no higher than the target, and the target is
+     * valid.
+     */
+    public static boolean checkProofOfWork(final Sha256Hash hash, final long compactTarget) {
+        if (!isValidCompactTarget(compactTarget)) {
+            return false;
+        }
+        final byte[] bytes = hash.getBytes();
+        for (int i = LIMBS - 1; i >= 0; i--) {
+            final int comparison = Long.compareUnsigned(readBigEndianLimb(bytes, i),
+                compactLimb(compactTarget, i));
+            if (comparison != 0) {
+                return comparison < 0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Set this to the value of a target in compact form.
+     *
+     * @return this.
+     * @throws IllegalArgumentException if the target is negative or does not
+     * fit in 256 bits.
+     */
+    public Uint256 setCompactBits(final long compact) {
+        if ((compact & COMPACT_SIGN_BIT) != 0 && (compact & COMPACT_MANTISSA_MASK) != 0) {
+            throw new IllegalArgumentException("Negative compact target " + Long.toHexString(compact));
+        }
+        if ((compact & COMPACT_MANTISSA_MASK) != 0 && !isValidCompactTarget(compact)) {
+            throw new IllegalArgumentException("Compact target " + Long.toHexString(compact)
+                + " does not fit in 256 bits");
+        }
+        for (int i = 0; i < LIMBS; i++) {
+            setLimb(i, compactLimb(compact, i));
+        }
+        return this;
+    }
+
+    /**
+     * Encode this value in compact form. Precision below the top three bytes
+     * is lost.
+     */
+    public long toCompactBits() {
+        int size = (bitLength() + 7) / 8;
+        long result;
+        if (size <= 3) {
+            result = limb0 << (8 * (3 - size));
+        } else {
+            result = shiftedLimb0(8 * (size - 3)) & 0xffffffL;
+        }
+        // The 0x00800000 bit is the sign, so if the mantissa would set it
+        // shift down a byte and increase the size instead
+        if ((result & COMPACT_SIGN_BIT) != 0) {
+            result >>>= 8;
+            size++;
+        }
+        return result | ((long) size << 24);
+    }
+
+    /**
+     * Set this to the same value as another.
+     *
+     * @return this.
+     */
+    public Uint256 set(final Uint256 other) {
+        limb0 = other.limb0;
+        limb1 = other.limb1;
+        limb2 = other.limb2;
+        limb3 = other.limb3;
+        return this;
+    }
+
+    /**
+     * Add another value to this, modulo 2<sup>256</sup>.
+     *
+     * @return this.
+     */
+    public Uint256 add(final Uint256 other) {
+        long carry = 0;
+        for (int i = 0; i < LIMBS; i++) {
+            final long a = getLimb(i);
+            final long sum = a + other.getLimb(i) + carry;
+            carry = (Long.compareUnsigned(sum, a) < 0 || (carry != 0 && sum == a)) ? 1 : 0;
+            setLimb(i, sum);
+        }
+        return this;
+    }
+
+    /**
+     * Set this to the expected number of hashes needed to meet the given
+     * target, 2<sup>256</sup> / (target + 1), as used for chain work.
+     *
+     * @return this.
+     * @throws IllegalArgumentException if the target is zero, as the work
+     * would not fit in 256 bits.
+     */
+    public Uint256 setWork(final Uint256 target) {
+        if (target.isZero()) {
+            throw new IllegalArgumentException("Work for a zero target does not fit in 256 bits");
+        }
+        // 2^256 / (target + 1) is (~target / (target + 1)) + 1, which avoids
+        // needing a 257th bit
+        long d0 = target.limb0 + 1;
+        long d1 = target.limb1 + (d0 == 0 ? 1 : 0);
+        long d2 = target.limb2 + (d0 == 0 && d1 == 0 ? 1 : 0);
+        final long d3 = target.limb3 + (d0 == 0 && d1 == 0 && d2 == 0 ? 1 : 0);
+        if (d0 == 0 && d1 == 0 && d2 == 0 && d3 == 0) {
+            // The target is 2^256 - 1
+            limb0 = 1;
+            limb1 = 0;
+            limb2 = 0;
+            limb3 = 0;
+            return this;
+        }
+        final long n0 = ~target.limb0;
+        final long n1 = ~target.limb1;
+        final long n2 = ~target.limb2;
+        final long n3 = ~target.limb3;
+
+        // Shift and subtract long division
+        long q0 = 0, q1 = 0, q2 = 0, q3 = 0;
+        long r0 = 0, r1 = 0, r2 = 0, r3 = 0;
+        for (int bit = 255; bit >= 0; bit--) {
+            final boolean overflow = r3 < 0;
+            r3 = (r3 << 1) | (r2 >>> 63);
+            r2 = (r2 << 1) | (r1 >>> 63);
+            r1 = (r1 << 1) | (r0 >>> 63);
+            final long n = bit >= 192 ? n3 : bit >= 128 ? n2 : bit >= 64 ? n1 : n0;
+            r0 = (r0 << 1) | ((n >>> (bit & 63)) & 1);
+            if (overflow || compareUnsigned(r3, r2, r1, r0, d3, d2, d1, d0) >= 0) {
+                // Subtract the divisor from the remainder
+                final long s0 = r0 - d0;
+                long borrow = Long.compareUnsigned(r0, d0) < 0 ? 1 : 0;
+                final long s1 = r1 - d1 - borrow;
+                borrow = (Long.compareUnsigned(r1, d1) < 0 || (borrow != 0 && r1 == d1)) ? 1 : 0;
+                final long s2 = r2 - d2 - borrow;
+                borrow = (Long.compareUnsigned(r2, d2) < 0 || (borrow != 0 && r2 == d2)) ? 1 : 0;
+                r3 = r3 - d3 - borrow;
+                r2 = s2;
+                r1 = s1;
+                r0 = s0;
+                final long mask = 1L << (bit & 63);
+                if (bit >= 192) {
+                    q3 |= mask;
+                } else if (bit >= 128) {
+                    q2 |= mask;
+                } else if (bit >= 64) {
+                    q1 |= mask;
+                } else {
+                    q0 |= mask;
+                }
+            }
+        }
+        limb0 = q0;
+        limb1 = q1;
+        limb2 = q2;
+        limb3 = q3;
+        return add(ONE);
+    }
+
+    public boolean isZero() {
+        return (limb0 | limb1 | limb2 | limb3) == 0;
+    }
+
+    /**
+     * Get the number of bits needed to hold this value.
+     */
+    public int bitLength() {
+        for (int i = LIMBS - 1; i >= 0; i--) {
+            final long limb = getLimb(i);
+            if (limb != 0) {
+                return 64 * i + 64 - Long.numberOfLeadingZeros(limb);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compare this with a hash, read as a big endian number as
+     * {@link Sha256Hash#toBigInteger()} does.
+     */
+    public int compareTo(final Sha256Hash hash) {
+        final byte[] bytes = hash.getBytes();
+        for (int i = LIMBS - 1; i >= 0; i--) {
+            final int comparison = Long.compareUnsigned(getLimb(i), readBigEndianLimb(bytes, i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int compareTo(final Uint256 other) {
+        return compareUnsigned(limb3, limb2, limb1, limb0, other.limb3, other.limb2, other.limb1, other.limb0);
+    }
+
+    /**
+     * Write the low bytes of this value, big endian, into the output array.
+     *
+     * @throws IllegalArgumentException if the value does not fit in the given
+     * number of bytes.
+     */
+    public void writeBigEndian(final byte[] output, final int offset, final int length) {
+        if (length < LENGTH && bitLength() > length * 8) {
+            throw new IllegalArgumentException("Value does not fit in " + length + " bytes");
+        }
+        for (int i = 0; i < length; i++) {
+            final int byteIndex = length - 1 - i;
+            output[offset + i] = byteIndex < LENGTH ? (byte) (getLimb(byteIndex / 8) >>> (8 * (byteIndex % 8))) : 0;
+        }
+    }
+
+    /**
+     * Set this value from big endian bytes.
+     *
+     * @return this.
+     */
+    public Uint256 readBigEndian(final byte[] input, final int offset, final int length) {
+        if (length > LENGTH) {
+            throw new IllegalArgumentException("At most " + LENGTH + " bytes can be read, not " + length);
+        }
+        limb0 = 0;
+        limb1 = 0;
+        limb2 = 0;
+        limb3 = 0;
+        for (int i = 0; i < length; i++) {
+            final int byteIndex = length - 1 - i;
+            setLimb(byteIndex / 8, getLimb(byteIndex / 8) | ((input[offset + i] & 0xffL) << (8 * (byteIndex % 8))));
+        }
+        return this;
+    }
+
+    public BigInteger toBigInteger() {
+        final byte[] bytes = new byte[LENGTH];
+        writeBigEndian(bytes, 0, LENGTH);
+        return new BigInteger(1, bytes);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Uint256)) {
+            return false;
+        }
+        final Uint256 other = (Uint256) o;
+        return limb0 == other.limb0 && limb1 == other.limb1 && limb2 == other.limb2 && limb3 == other.limb3;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(limb0 ^ limb1 ^ limb2 ^ limb3);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x%016x%016x", limb3, limb2, limb1, limb0);
+    }
+
+    private long getLimb(final int index) {
+        switch (index) {
+            case 0: return limb0;
+            case 1: return limb1;
+            case 2: return limb2;
+            default: return limb3;
+        }
+    }
+
+    private void setLimb(final int index, final long value) {
+        switch (index) {
+            case 0: limb0 = value; break;
+            case 1: limb1 = value; break;
+            case 2: limb2 = value; break;
+            default: limb3 = value; break;
+        }
+    }
+
+    /**
+     * Get the low 64 bits of this value shifted right by the given number of
+     * bits.
+     */
+    private long shiftedLimb0(final int shift) {
+        final int index = shift / 64;
+        final int bits = shift % 64;
+        final long low = index < LIMBS ? getLimb(index) : 0;
+        if (bits == 0) {
+            return low;
+        }
+        final long high = index + 1 < LIMBS ? getLimb(index + 1) : 0;
+        return (low >>> bits) | (high << (64 - bits));
+    }
+
+    /**
+     * Get one limb of the value of a compact target, ignoring the sign.
+     */
+    private static long compactLimb(final long compact, final int index) {
+        final long mantissa = compact & COMPACT_MANTISSA_MASK;
+        final int size = (int) ((compact >>> 24) & 0xff);
+        // Position of the mantissa relative to the start of this limb
+        final int shift = 8 * (size - 3) - 64 * index;
+        if (shift >= 64 || shift <= -64) {
+            return 0;
+        }
+        return shift >= 0 ? mantissa << shift : mantissa >>> -shift;
+    }
+
+    private static long readBigEndianLimb(final byte[] bytes, final int index) {
+        final int start = LENGTH - 8 * (index + 1);
+        long limb = 0;
+        for (int i = 0; i < 8; i++) {
+            limb = (limb << 8) | (bytes[start + i] & 0xffL);
+        }
+        return limb;
+    }
+
+    private static long readLittleEndianLimb(final byte[] bytes, final int offset, final int index) {
+        final int start = offset + 8 * index;
+        long limb = 0;
+        for (int i = 7; i >= 0; i--) {
+            limb = (limb << 8) | (bytes[start + i] & 0xffL);
+        }
+        return limb;
+    }
+
+    private static int compareUnsigned(final long a3, final long a2, final long a1, final long a0,
+                                       final long b3, final long b2, final long b1, final long b0) {
+        if (a3 != b3) {
+            return Long.compareUnsigned(a3, b3);
+        }
+        if (a2 != b2) {
+            return Long.compareUnsigned(a2, b2);
+        }
+        if (a1 != b1) {
+            return Long.compareUnsigned(a1, b1);
+        }
+        return Long.compareUnsigned(a0, b0);
+    }
+}
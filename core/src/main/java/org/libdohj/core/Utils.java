@@ -16,7 +16,6 @@
  */
 package org.libdohj.core;
 
-import com.lambdaworks.crypto.SCrypt;
 import org.bitcoinj.base.Sha256Hash;
 
 import java.math.BigInteger;
@@ -31,7 +30,18 @@ public class Utils {
      * The resulting hash is in small endian form.
      */
     public static byte[] scryptDigest(byte[] input) throws GeneralSecurityException {
-        return SCrypt.scrypt(input, input, 1024, 1, 1, 32);
+        final byte[] output = new byte[ScryptContext.DIGEST_LENGTH];
+        scryptDigest(input, 0, input.length, output, 0);
+        return output;
+    }
+
+    /**
+     * Calculates the Scrypt hash of the given byte range into the output
+     * array, using the calling thread's {@link ScryptContext} so that no
+     * memory is allocated. The resulting hash is in small endian form.
+     */
+    public static void scryptDigest(byte[] input, int offset, int length, byte[] output, int outputOffset) {
+        ScryptContext.get().digest(input, offset, length, output, outputOffset);
     }
 
     public static String formatAsHash(final BigInteger value) {
@@ -43,37 +53,52 @@ public class Utils {
     }
 
     /**
-     * Decode compact bits to BigInteger
+     * Decode compact bits to BigInteger. The compact format is a 1 byte
+     * exponent (the length of the value in bytes) followed by a 3 byte
+     * mantissa, whose top bit is the sign.
      */
     public static BigInteger decodeCompactBits(long compact) {
-        // In bitcoinj 0.17, this method might have moved or changed
-        // For now, implement a basic version
-        int size = (int) (compact >> 24);
-        byte[] bytes = new byte[4 + size];
-        bytes[0] = (byte) (size & 0xFF);
-        bytes[1] = (byte) ((compact >> 16) & 0xFF);
-        bytes[2] = (byte) ((compact >> 8) & 0xFF);
-        bytes[3] = (byte) (compact & 0xFF);
-        return new BigInteger(1, bytes);
+        final int size = (int) ((compact >> 24) & 0xFF);
+        final long mantissa = compact & 0x007FFFFFL;
+        BigInteger value;
+        if (size <= 3) {
+            value = BigInteger.valueOf(mantissa >> (8 * (3 - size)));
+        } else {
+            value = BigInteger.valueOf(mantissa).shiftLeft(8 * (size - 3));
+        }
+        if (mantissa != 0 && (compact & 0x00800000L) != 0) {
+            value = value.negate();
+        }
+        return value;
     }
 
     /**
-     * Encode BigInteger to compact bits
+     * Encode a BigInteger to compact bits, the inverse of
+     * {@link #decodeCompactBits(long)}. Precision below the top three bytes
+     * of the value is lost. Zero encodes as zero.
      */
     public static long encodeCompactBits(BigInteger value) {
-        // In bitcoinj 0.17, this method might have moved or changed
-        // For now, implement a basic version
-        byte[] bytes = value.toByteArray();
-        if (bytes.length == 0) return 0;
-        
-        int size = bytes.length;
-        long compact = (long) size << 24;
-        
-        if (size >= 1) compact |= (bytes[0] & 0xFF) << 16;
-        if (size >= 2) compact |= (bytes[1] & 0xFF) << 8;
-        if (size >= 3) compact |= (bytes[2] & 0xFF);
-        
-        return compact;
+        if (value.signum() == 0) {
+            return 0;
+        }
+        int size = value.toByteArray().length;
+        long result;
+        if (size <= 3) {
+            result = value.longValue() << (8 * (3 - size));
+        } else {
+            result = value.shiftRight(8 * (size - 3)).longValue();
+        }
+        // The 0x00800000 bit is the sign, so if the mantissa would set it
+        // shift down a byte and increase the size instead
+        if ((result & 0x00800000L) != 0) {
+            result >>= 8;
+            size++;
+        }
+        result |= (long) size << 24;
+        if (value.signum() < 0) {
+            result |= 0x00800000L;
+        }
+        return result;
     }
 
     /**
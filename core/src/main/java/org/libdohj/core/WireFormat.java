@@ -0,0 +1,266 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.ProtocolException;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>Readers and writers for the little endian Bitcoin wire format, working
+ * directly on a {@link ByteBuffer} without copying.</p>
+ *
+ * <p>All readers advance the buffer position, and throw
+ * {@link ProtocolException} rather than {@link java.nio.BufferUnderflowException}
+ * if the buffer is too short. Writers also advance the position, and throw
+ * {@link java.nio.BufferOverflowException} if the buffer is too short, so
+ * callers should size buffers up front. The byte order of the buffer is
+ * neither relied on nor changed, so buffers can be shared with code expecting
+ * either order.</p>
+ */
+public final class WireFormat {
+    /** Segregated witness marker byte, read where the input count would be. */
+    private static final int SEGWIT_MARKER = 0x00;
+
+    private WireFormat() {
+    }
+
+    /**
+     * Read an unsigned 32 bit little endian integer.
+     */
+    public static long readUint32(final ByteBuffer buf) throws ProtocolException {
+        require(buf, 4);
+        return (buf.get() & 0xffL)
+            | ((buf.get() & 0xffL) << 8)
+            | ((buf.get() & 0xffL) << 16)
+            | ((buf.get() & 0xffL) << 24);
+    }
+
+    /**
+     * Read an unsigned 32 bit little endian integer at an absolute offset,
+     * without moving the buffer position.
+     */
+    public static long getUint32(final ByteBuffer buf, final int offset) {
+        return (buf.get(offset) & 0xffL)
+            | ((buf.get(offset + 1) & 0xffL) << 8)
+            | ((buf.get(offset + 2) & 0xffL) << 16)
+            | ((buf.get(offset + 3) & 0xffL) << 24);
+    }
+
+    /**
+     * Read a signed 64 bit little endian integer, such as an output value.
+     */
+    public static long readInt64(final ByteBuffer buf) throws ProtocolException {
+        require(buf, 8);
+        final long value = buf.getLong();
+        return buf.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    /**
+     * Read a variable length integer ("CompactSize"). Values which do not fit
+     * in a signed long are rejected.
+     */
+    public static long readVarInt(final ByteBuffer buf) throws ProtocolException {
+        require(buf, 1);
+        final int first = buf.get() & 0xff;
+        switch (first) {
+            case 0xfd:
+                require(buf, 2);
+                return (buf.get() & 0xffL) | ((buf.get() & 0xffL) << 8);
+            case 0xfe:
+                return readUint32(buf);
+            case 0xff:
+                require(buf, 8);
+                final long value = readUint32(buf) | (readUint32(buf) << 32);
+                if (value < 0) {
+                    throw new ProtocolException("Variable length integer out of range: " + Long.toUnsignedString(value));
+                }
+                return value;
+            default:
+                return first;
+        }
+    }
+
+    /**
+     * Read a variable length integer used as a count or length of data
+     * which must then follow in the buffer, rejecting values which cannot
+     * fit the bytes remaining.
+     *
+     * @param elementSize minimum size in bytes of each counted element.
+     */
+    public static int readCount(final ByteBuffer buf, final int elementSize) throws ProtocolException {
+        final long count = readVarInt(buf);
+        if (count > buf.remaining() / Math.max(1, elementSize)) {
+            throw new ProtocolException("Count of " + count + " exceeds remaining "
+                + buf.remaining() + " bytes");
+        }
+        return (int) count;
+    }
+
+    /**
+     * Read a 32 byte hash, stored in little endian (wire) order.
+     */
+    public static Sha256Hash readHash(final ByteBuffer buf) throws ProtocolException {
+        final byte[] bytes = new byte[Sha256Hash.LENGTH];
+        require(buf, bytes.length);
+        buf.get(bytes);
+        return Sha256Hash.wrapReversed(bytes);
+    }
+
+    /**
+     * Advance the buffer position by the given number of bytes.
+     */
+    public static void skip(final ByteBuffer buf, final int length) throws ProtocolException {
+        require(buf, length);
+        buf.position(buf.position() + length);
+    }
+
+    /**
+     * Advance past a variable length byte array, such as a script.
+     */
+    public static void skipBytes(final ByteBuffer buf) throws ProtocolException {
+        skip(buf, readCount(buf, 1));
+    }
+
+    /**
+     * Advance past a serialized transaction, in either the legacy or the
+     * segregated witness format, without decoding it.
+     */
+    public static void skipTransaction(final ByteBuffer buf) throws ProtocolException {
+        skip(buf, 4); // Version
+        int inputCount = readCount(buf, 41);
+        boolean witness = false;
+        if (inputCount == SEGWIT_MARKER) {
+            require(buf, 1);
+            if (buf.get() == 0) {
+                throw new ProtocolException("Invalid segregated witness flag");
+            }
+            witness = true;
+            inputCount = readCount(buf, 41);
+        }
+        for (int i = 0; i < inputCount; i++) {
+            skip(buf, 36); // Outpoint
+            skipBytes(buf); // Script
+            skip(buf, 4); // Sequence
+        }
+        final int outputCount = readCount(buf, 9);
+        for (int i = 0; i < outputCount; i++) {
+            skip(buf, 8); // Value
+            skipBytes(buf); // Script
+        }
+        if (witness) {
+            for (int i = 0; i < inputCount; i++) {
+                final int itemCount = readCount(buf, 1);
+                for (int j = 0; j < itemCount; j++) {
+                    skipBytes(buf);
+                }
+            }
+        }
+        skip(buf, 4); // Lock time
+    }
+
+    /**
+     * Get the number of bytes a variable length integer is serialized to.
+     */
+    public static int varIntSize(final long value) {
+        if (value >= 0 && value < 0xfd) {
+            return 1;
+        } else if (value >= 0 && value <= 0xffff) {
+            return 3;
+        } else if (value >= 0 && value <= 0xffffffffL) {
+            return 5;
+        }
+        return 9;
+    }
+
+    /**
+     * Write an unsigned 32 bit little endian integer.
+     */
+    public static void writeUint32(final ByteBuffer buf, final long value) {
+        final int bits = (int) value;
+        buf.putInt(buf.order() == ByteOrder.LITTLE_ENDIAN ? bits : Integer.reverseBytes(bits));
+    }
+
+    /**
+     * Write a variable length integer.
+     */
+    public static void writeVarInt(final ByteBuffer buf, final long value) {
+        switch (varIntSize(value)) {
+            case 1:
+                buf.put((byte) value);
+                break;
+            case 3:
+                buf.put((byte) 0xfd);
+                buf.putShort(buf.order() == ByteOrder.LITTLE_ENDIAN ? (short) value
+                    : Short.reverseBytes((short) value));
+                break;
+            case 5:
+                buf.put((byte) 0xfe);
+                writeUint32(buf, value);
+                break;
+            default:
+                buf.put((byte) 0xff);
+                writeInt64(buf, value);
+                break;
+        }
+    }
+
+    /**
+     * Write a 32 byte hash in little endian (wire) order.
+     */
+    public static void writeHash(final ByteBuffer buf, final Sha256Hash hash) {
+        final byte[] bytes = hash.getBytes();
+        if (buf.remaining() < Sha256Hash.LENGTH) {
+            throw new BufferOverflowException();
+        }
+        // Each eight bytes of the big endian hash, read as a big endian long,
+        // is the next eight bytes of the wire form as a little endian long
+        for (int offset = Sha256Hash.LENGTH - 8; offset >= 0; offset -= 8) {
+            long word = 0;
+            for (int i = 0; i < 8; i++) {
+                word = (word << 8) | (bytes[offset + i] & 0xffL);
+            }
+            writeInt64(buf, word);
+        }
+    }
+
+    private static void writeInt64(final ByteBuffer buf, final long value) {
+        buf.putLong(buf.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value));
+    }
+
+    /**
+     * Create a read-only view of a range of the buffer, sharing its content,
+     * without moving the position of the original.
+     *
+     * @param offset absolute offset of the start of the range.
+     */
+    public static ByteBuffer slice(final ByteBuffer buf, final int offset, final int length) {
+        final ByteBuffer duplicate = buf.duplicate();
+        duplicate.limit(offset + length);
+        duplicate.position(offset);
+        return duplicate.slice().asReadOnlyBuffer();
+    }
+
+    private static void require(final ByteBuffer buf, final int length) throws ProtocolException {
+        if (length < 0 || buf.remaining() < length) {
+            throw new ProtocolException("Unexpected end of data: needed " + length
+                + " bytes but only " + buf.remaining() + " remain");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.names;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * <p>An immutable name, held as the bytes it is stored as in name scripts,
+ * for use as a lookup key.</p>
+ *
+ * <p>Names are converted to and from strings as ISO-8859-1, one byte per
+ * character, so a name can be compared with a string, or with a name pushed
+ * in a script, byte for byte without converting either side. The hash code is
+ * worked out once, so names are cheap keys for hash maps, and a database key
+ * is built by prepending a prefix to the bytes.</p>
+ */
+public final class Name {
+    private final byte[] bytes;
+    private final int hash;
+
+    private Name(final byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Get the name of the given string.
+     *
+     * @throws IllegalArgumentException if the string has characters outside
+     * ISO-8859-1, which no name can hold.
+     */
+    public static Name of(final String name) {
+        final byte[] bytes = new byte[name.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            final char c = name.charAt(i);
+            if (c > 0xff) {
+                throw new IllegalArgumentException("Name has a character outside ISO-8859-1 at " + i);
+            }
+            bytes[i] = (byte) c;
+        }
+        return new Name(bytes);
+    }
+
+    /**
+     * Get the name with a copy of the given bytes.
+     */
+    public static Name copyOf(final byte[] bytes) {
+        return new Name(bytes.clone());
+    }
+
+    /**
+     * Get the name with a copy of a range of the given bytes, such as a name
+     * pushed in a script.
+     */
+    public static Name copyOf(final byte[] bytes, final int offset, final int length) {
+        return new Name(Arrays.copyOfRange(bytes, offset, offset + length));
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * Copy out the bytes of the name.
+     */
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * Build a database key of the given prefix followed by the name.
+     */
+    public byte[] toKey(final byte[] prefix) {
+        final byte[] key = Arrays.copyOf(prefix, prefix.length + bytes.length);
+        System.arraycopy(bytes, 0, key, prefix.length, bytes.length);
+        return key;
+    }
+
+    /**
+     * Whether the name is the given range of bytes, such as a name pushed in
+     * a script.
+     */
+    public boolean contentEquals(final byte[] other, final int offset, final int length) {
+        if (length != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != other[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the name is the given string, read as ISO-8859-1.
+     */
+    public boolean contentEquals(final String other) {
+        if (other.length() != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (other.charAt(i) != (bytes[i] & 0xff)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Name)) {
+            return false;
+        }
+        final Name other = (Name) o;
+        return hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Get the name as a string, read as ISO-8859-1.
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
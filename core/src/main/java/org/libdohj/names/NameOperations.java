@@ -0,0 +1,347 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.names;
+
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.AuxPoW;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.ProtocolException;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.script.ScriptError;
+import org.bitcoinj.script.ScriptException;
+import org.libdohj.core.WireFormat;
+import org.libdohj.script.NameScript;
+import org.libdohj.script.RawNameScript;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The name operations of one block, extracted in a single pass over its
+ * transactions, as a compact list of (transaction index, output index,
+ * operation, name, value) at the height of the block.</p>
+ *
+ * <p>Serialized blocks are best extracted with
+ * {@link #extract(ByteBuffer, int)}, which walks the block once without
+ * decoding it. Output scripts are only copied out of the block if their first
+ * byte is a name opcode, so the vast majority of outputs are skipped
+ * without allocating. Each name operation keeps its script, and the name and
+ * value are reported as offsets into it, so the list does not hold on to the
+ * rest of the block.</p>
+ *
+ * <p>A list is immutable once extracted, and safe to share between
+ * threads.</p>
+ */
+public final class NameOperations {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int height;
+    private int size;
+    private int[] txIndexes = new int[INITIAL_CAPACITY];
+    private int[] outputIndexes = new int[INITIAL_CAPACITY];
+    private int[] ops = new int[INITIAL_CAPACITY];
+    private int[] nameOffsets = new int[INITIAL_CAPACITY];
+    private int[] nameLengths = new int[INITIAL_CAPACITY];
+    private int[] valueOffsets = new int[INITIAL_CAPACITY];
+    private int[] valueLengths = new int[INITIAL_CAPACITY];
+    private byte[][] scripts = new byte[INITIAL_CAPACITY][];
+
+    private NameOperations(final int height) {
+        this.height = height;
+    }
+
+    /**
+     * Extract the name operations of a serialized block, starting at the
+     * buffer's position. The position is not moved.
+     *
+     * @param block serialized block including its transactions, with any
+     * AuxPoW header.
+     * @param height height of the block.
+     * @throws ProtocolException if the block cannot be read.
+     */
+    public static NameOperations extract(final ByteBuffer block, final int height) throws ProtocolException {
+        final NameOperations operations = new NameOperations(height);
+        final RawNameScript ns = new RawNameScript();
+        final ByteBuffer buf = block.duplicate();
+        final int start = buf.position();
+        WireFormat.skip(buf, Block.HEADER_SIZE);
+        final long version = WireFormat.getUint32(buf, start);
+        if ((version & AltcoinBlock.BLOCK_VERSION_FLAG_AUXPOW) != 0) {
+            AuxPoW.skip(buf);
+        }
+        if (!buf.hasRemaining()) {
+            // Header only
+            return operations;
+        }
+        final int transactionCount = WireFormat.readCount(buf, 10);
+        for (int txIndex = 0; txIndex < transactionCount; txIndex++) {
+            WireFormat.skip(buf, 4); // Version
+            int inputCount = WireFormat.readCount(buf, 41);
+            boolean witness = false;
+            if (inputCount == 0) {
+                // Segregated witness marker, which is followed by a flag
+                WireFormat.skip(buf, 1);
+                witness = true;
+                inputCount = WireFormat.readCount(buf, 41);
+            }
+            for (int i = 0; i < inputCount; i++) {
+                WireFormat.skip(buf, 36); // Outpoint
+                WireFormat.skipBytes(buf); // Script
+                WireFormat.skip(buf, 4); // Sequence
+            }
+            final int outputCount = WireFormat.readCount(buf, 9);
+            for (int outputIndex = 0; outputIndex < outputCount; outputIndex++) {
+                WireFormat.skip(buf, 8); // Value
+                final int scriptLength = WireFormat.readCount(buf, 1);
+                final int scriptStart = buf.position();
+                WireFormat.skip(buf, scriptLength);
+                if (scriptLength > 0 && isNameOpcode(buf.get(scriptStart) & 0xff)) {
+                    final byte[] script = new byte[scriptLength];
+                    final ByteBuffer scriptBuf = buf.duplicate();
+                    scriptBuf.position(scriptStart);
+                    scriptBuf.get(script);
+                    operations.addIfNameOp(ns, script, txIndex, outputIndex);
+                }
+            }
+            if (witness) {
+                for (int i = 0; i < inputCount; i++) {
+                    final int itemCount = WireFormat.readCount(buf, 1);
+                    for (int j = 0; j < itemCount; j++) {
+                        WireFormat.skipBytes(buf);
+                    }
+                }
+            }
+            WireFormat.skip(buf, 4); // Lock time
+        }
+        return operations;
+    }
+
+    /**
+     * Extract the name operations of decoded transactions, such as those of
+     * a block.
+     *
+     * @param transactions transactions in block order; each operation's
+     * transaction index is its position in this list.
+     * @param height height of the block.
+     */
+    public static NameOperations extract(final List<Transaction> transactions, final int height) {
+        final NameOperations operations = new NameOperations(height);
+        final RawNameScript ns = new RawNameScript();
+        for (int txIndex = 0; txIndex < transactions.size(); txIndex++) {
+            final List<TransactionOutput> outputs = transactions.get(txIndex).getOutputs();
+            for (int outputIndex = 0; outputIndex < outputs.size(); outputIndex++) {
+                operations.addIfNameOp(ns, outputs.get(outputIndex).getScriptBytes(), txIndex, outputIndex);
+            }
+        }
+        return operations;
+    }
+
+    private static boolean isNameOpcode(final int opcode) {
+        return opcode == NameScript.OP_NAME_NEW || opcode == NameScript.OP_NAME_FIRSTUPDATE
+            || opcode == NameScript.OP_NAME_UPDATE;
+    }
+
+    private void addIfNameOp(final RawNameScript ns, final byte[] script, final int txIndex, final int outputIndex) {
+        if (!ns.parse(script)) {
+            return;
+        }
+        if (size == ops.length) {
+            grow();
+        }
+        txIndexes[size] = txIndex;
+        outputIndexes[size] = outputIndex;
+        ops[size] = ns.getOp();
+        scripts[size] = script;
+        if (ns.isAnyUpdate()) {
+            nameOffsets[size] = ns.getNameOffset();
+            nameLengths[size] = ns.getNameLength();
+            valueOffsets[size] = ns.getValueOffset();
+            valueLengths[size] = ns.getValueLength();
+        }
+        size++;
+    }
+
+    private void grow() {
+        final int capacity = ops.length * 2;
+        txIndexes = Arrays.copyOf(txIndexes, capacity);
+        outputIndexes = Arrays.copyOf(outputIndexes, capacity);
+        ops = Arrays.copyOf(ops, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        valueOffsets = Arrays.copyOf(valueOffsets, capacity);
+        valueLengths = Arrays.copyOf(valueLengths, capacity);
+        scripts = Arrays.copyOf(scripts, capacity);
+    }
+
+    /**
+     * Get the number of name operations, including name_new operations.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the height of the block the operations were extracted from.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the index within the block of the transaction of the given
+     * operation.
+     */
+    public int getTxIndex(final int index) {
+        checkIndex(index);
+        return txIndexes[index];
+    }
+
+    /**
+     * Get the index within its transaction of the output of the given
+     * operation.
+     */
+    public int getOutputIndex(final int index) {
+        checkIndex(index);
+        return outputIndexes[index];
+    }
+
+    /**
+     * Get the operation, one of {@link NameScript#OP_NAME_NEW},
+     * {@link NameScript#OP_NAME_FIRSTUPDATE} or
+     * {@link NameScript#OP_NAME_UPDATE}.
+     */
+    public int getOp(final int index) {
+        checkIndex(index);
+        return ops[index];
+    }
+
+    public boolean isAnyUpdate(final int index) {
+        final int op = getOp(index);
+        return op == NameScript.OP_NAME_FIRSTUPDATE || op == NameScript.OP_NAME_UPDATE;
+    }
+
+    /**
+     * Get the output script of the given operation, which the name and value
+     * offsets refer to. The array is shared, so must not be changed.
+     */
+    public byte[] getScript(final int index) {
+        checkIndex(index);
+        return scripts[index];
+    }
+
+    public int getNameOffset(final int index) {
+        checkAnyUpdate(index);
+        return nameOffsets[index];
+    }
+
+    public int getNameLength(final int index) {
+        checkAnyUpdate(index);
+        return nameLengths[index];
+    }
+
+    public int getValueOffset(final int index) {
+        checkAnyUpdate(index);
+        return valueOffsets[index];
+    }
+
+    public int getValueLength(final int index) {
+        checkAnyUpdate(index);
+        return valueLengths[index];
+    }
+
+    /**
+     * Copy out the name of the given update.
+     */
+    public Name getName(final int index) {
+        checkAnyUpdate(index);
+        return Name.copyOf(scripts[index], nameOffsets[index], nameLengths[index]);
+    }
+
+    /**
+     * Copy out the value of the given update.
+     */
+    public byte[] getValue(final int index) {
+        checkAnyUpdate(index);
+        return Arrays.copyOfRange(scripts[index], valueOffsets[index], valueOffsets[index] + valueLengths[index]);
+    }
+
+    /**
+     * Whether the given operation is an update of the given name.
+     */
+    public boolean isAnyUpdateOf(final int index, final Name name) {
+        return isAnyUpdate(index) && name.contentEquals(scripts[index], nameOffsets[index], nameLengths[index]);
+    }
+
+    /**
+     * Find the first update of the given name.
+     *
+     * @return the index of the operation, or -1 if the name is not updated.
+     */
+    public int indexOfAnyUpdate(final Name name) {
+        for (int i = 0; i < size; i++) {
+            if (isAnyUpdateOf(i, name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first update of the given name, read as ISO-8859-1.
+     *
+     * @return the index of the operation, or -1 if the name is not updated.
+     */
+    public int indexOfAnyUpdate(final String name) {
+        for (int i = 0; i < size; i++) {
+            if (isAnyUpdate(i) && nameEquals(i, name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean nameEquals(final int index, final String name) {
+        if (name.length() != nameLengths[index]) {
+            return false;
+        }
+        final byte[] script = scripts[index];
+        final int offset = nameOffsets[index];
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != (script[offset + i] & 0xff)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " of " + size + " name operations");
+        }
+    }
+
+    private void checkAnyUpdate(final int index) {
+        if (!isAnyUpdate(index)) {
+            throw new ScriptException(ScriptError.SCRIPT_ERR_DISABLED_OPCODE, "Not an AnyUpdate op");
+        }
+    }
+}
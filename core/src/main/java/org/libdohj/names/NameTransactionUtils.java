@@ -17,13 +17,14 @@
 package org.libdohj.names;
 
 import org.libdohj.script.NameScript;
+import org.libdohj.script.RawNameScript;
 
-import org.bitcoinj.script.ScriptException;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.core.TransactionOutput;
 import org.bitcoinj.script.Script;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 
 // TODO: document this
 
@@ -35,17 +36,11 @@ public class NameTransactionUtils {
     // However, this might be changed in the future, to allow atomic updates of multiple names.
     // This could enable things like CoinJoin for names.
     public static TransactionOutput getNameAnyUpdateOutput(Transaction tx, String name) {
+        // Decoded from the script bytes, as most outputs are not name ops
+        final RawNameScript ns = new RawNameScript();
         for (TransactionOutput output : tx.getOutputs()) {
-            try {
-                Script scriptPubKey = output.getScriptPubKey();
-                NameScript ns = new NameScript(scriptPubKey);
-                if(ns.isNameOp() && ns.isAnyUpdate() && new String(ns.getOpName().data, "ISO-8859-1").equals(name)) {
-                    return output;
-                }
-            } catch (ScriptException e) {
-                continue;
-            } catch (UnsupportedEncodingException e) {
-                continue;
+            if (ns.parse(output.getScriptBytes()) && ns.isAnyUpdate() && ns.nameEquals(name)) {
+                return output;
             }
         }
         
@@ -53,9 +48,27 @@ public class NameTransactionUtils {
         return null;
     }
     
-    public static NameScript getNameAnyUpdateScript(Transaction tx, String name) {
-        TransactionOutput output = getNameAnyUpdateOutput(tx, name);
+    public static TransactionOutput getNameAnyUpdateOutput(Transaction tx, Name name) {
+        final RawNameScript ns = new RawNameScript();
+        for (TransactionOutput output : tx.getOutputs()) {
+            if (ns.parse(output.getScriptBytes()) && ns.isAnyUpdate() && ns.nameEquals(name)) {
+                return output;
+            }
+        }
         
+        // No such output was found.
+        return null;
+    }
+    
+    public static NameScript getNameAnyUpdateScript(Transaction tx, String name) {
+        return toNameScript(getNameAnyUpdateOutput(tx, name));
+    }
+    
+    public static NameScript getNameAnyUpdateScript(Transaction tx, Name name) {
+        return toNameScript(getNameAnyUpdateOutput(tx, name));
+    }
+    
+    private static NameScript toNameScript(TransactionOutput output) {
         if (output == null) {
             return null;
         }
@@ -71,6 +84,6 @@ public class NameTransactionUtils {
             return null;
         }
         
-        return new String(ns.getOpValue().data, "ISO-8859-1");
+        return new String(ns.getOpValue().data, StandardCharsets.ISO_8859_1);
     }
 }
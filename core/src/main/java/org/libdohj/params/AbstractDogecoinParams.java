@@ -17,6 +17,9 @@
 package org.libdohj.params;
 
 import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.bitcoinj.core.AltcoinBlock;
 import org.bitcoinj.core.Block;
@@ -33,7 +36,7 @@ import org.slf4j.LoggerFactory;
 
 import org.bitcoinj.base.Sha256Hash;
 import org.bitcoinj.core.StoredBlock;
-import org.bitcoinj.core.Utils;
+import org.libdohj.core.Utils;
 import org.libdohj.core.AuxPoWNetworkParameters;
 
 /**
@@ -41,6 +44,8 @@ import org.libdohj.core.AuxPoWNetworkParameters;
  */
 public abstract class AbstractDogecoinParams extends NetworkParameters implements AuxPoWNetworkParameters {
     public static final int DIGISHIELD_BLOCK_HEIGHT = 145000; // Block height to use Digishield from
+    public static final int DIGISHIELD_MIN_DIFFICULTY_BLOCK_HEIGHT = 157500; // Block height testnet allows minimum difficulty blocks under Digishield from
+    public static final int STABLE_SUBSIDY_BLOCK_HEIGHT = 600000; // Block height the subsidy is fixed from
     public static final int AUXPOW_CHAIN_ID = 0x0062; // 98
     public static final int DOGE_TARGET_TIMESPAN = 4 * 60 * 60;  // 4 hours per difficulty cycle, on average.
     public static final int DOGE_TARGET_TIMESPAN_NEW = 60;  // 60s per difficulty cycle, on average. Kicks in after block 145k.
@@ -69,6 +74,14 @@ public abstract class AbstractDogecoinParams extends NetworkParameters implement
     protected final int diffChangeTarget;
 
     protected Logger log = LoggerFactory.getLogger(AbstractDogecoinParams.class);
+
+    // Difficulty windows of the chains being verified, by block store, as
+    // these parameters are shared between chains
+    private final Map<BlockStore, DifficultyWindow> difficultyWindows
+        = Collections.synchronizedMap(new WeakHashMap<BlockStore, DifficultyWindow>());
+    private volatile CheckpointIndex checkpointIndex;
+    private volatile DogecoinSubsidySchedule subsidySchedule;
+
     public static final int DOGECOIN_PROTOCOL_VERSION_AUXPOW = 70003;
     public static final int DOGECOIN_PROTOCOL_VERSION_CURRENT = 70004;
 
@@ -94,17 +107,26 @@ public abstract class AbstractDogecoinParams extends NetworkParameters implement
 
     @Override
     public Coin getBlockSubsidy(final int height) {
-        if (height < DIGISHIELD_BLOCK_HEIGHT) {
-            // Up until the Digishield hard fork, subsidy was based on the
-            // previous block hash. Rather than actually recalculating that, we
-            // simply use the maximum possible here, and let checkpoints enforce
-            // that new blocks with different values can't be mined
-            return BASE_SUBSIDY.shiftRight(height / getSubsidyDecreaseBlockCount()).multiply(2);
-        } else if (height < 600000) {
-            return BASE_SUBSIDY.shiftRight(height / getSubsidyDecreaseBlockCount());
-        } else {
-            return STABLE_SUBSIDY;
+        return getSubsidySchedule().getBlockSubsidy(height);
+    }
+
+    /**
+     * Get the subsidy of every block of this network. Up until the Digishield
+     * hard fork, subsidy was based on the previous block hash. Rather than
+     * actually recalculating that, the schedule holds the maximum possible,
+     * and checkpoints enforce that new blocks with different values can't be
+     * mined.
+     */
+    public DogecoinSubsidySchedule getSubsidySchedule() {
+        DogecoinSubsidySchedule schedule = subsidySchedule;
+        if (schedule == null) {
+            // Built on first use, as subclasses set the subsidy decrease
+            // interval after this constructor has run
+            schedule = new DogecoinSubsidySchedule(getSubsidyDecreaseBlockCount(), DIGISHIELD_BLOCK_HEIGHT,
+                STABLE_SUBSIDY_BLOCK_HEIGHT, BASE_SUBSIDY, STABLE_SUBSIDY);
+            subsidySchedule = schedule;
         }
+        return schedule;
     }
 
     /** How many blocks pass between difficulty adjustment periods. After new diff algo. */
@@ -158,10 +180,93 @@ public abstract class AbstractDogecoinParams extends NetworkParameters implement
         return null;
     }
 
+    /**
+     * Check the difficulty target of the next block, using a
+     * {@link DifficultyWindow} kept for the block store, so the block store is
+     * only read after a reorganisation. Blocks whose difficulty depends on
+     * blocks missing from the store, such as just after the checkpoint the
+     * store was started from, are taken on trust.
+     */
     @Override
     public void checkDifficultyTransitions(StoredBlock storedPrev, Block nextBlock, BlockStore blockStore)
         throws VerificationException, BlockStoreException {
-        // Simplified implementation for now
+        DifficultyWindow window = difficultyWindows.get(blockStore);
+        if (window == null) {
+            window = new DifficultyWindow(this);
+            difficultyWindows.put(blockStore, window);
+        }
+        final long newTargetCompact;
+        synchronized (window) {
+            window.moveTo(storedPrev, blockStore);
+            newTargetCompact = calculateNewDifficultyTarget(window, nextBlock);
+        }
+        if (newTargetCompact < 0) {
+            log.debug("Difficulty transition at height {} reaches beyond the block store", storedPrev.getHeight() + 1);
+            return;
+        }
+        final long receivedTargetCompact = nextBlock.getDifficultyTarget();
+        if (newTargetCompact != receivedTargetCompact) {
+            throw new VerificationException("Network provided difficulty bits do not match what was calculated: "
+                + Long.toHexString(newTargetCompact) + " vs " + Long.toHexString(receivedTargetCompact));
+        }
+    }
+
+    /**
+     * Calculate the difficulty target of the block following the tip of the
+     * given window.
+     *
+     * @return the target in compact form, or -1 if the window does not reach
+     * back to the start of the retarget interval.
+     */
+    public long calculateNewDifficultyTarget(final DifficultyWindow window, final Block nextBlock) {
+        final int previousHeight = window.getTipHeight();
+        final int height = previousHeight + 1;
+        final int retargetInterval = getRetargetInterval(height);
+
+        if (allowDigishieldMinDifficultyForBlock(previousHeight, window.getTime(previousHeight), nextBlock)) {
+            return Utils.encodeCompactBits(getMaxTarget());
+        }
+        if (height % retargetInterval != 0) {
+            if (allowMinDifficultyBlocks()) {
+                // Testnet allows a minimum difficulty block if none has been
+                // found for twice the target spacing
+                final long nextTime = nextBlock.time().getEpochSecond();
+                if (nextTime > window.getTime(previousHeight) + getTargetSpacing(height) * 2) {
+                    return Utils.encodeCompactBits(getMaxTarget());
+                }
+                return window.getLastNormalDifficultyTarget(previousHeight);
+            }
+            return window.getDifficultyTarget(previousHeight);
+        }
+
+        // Go back the full interval unless it's the first retarget after
+        // genesis, so one block overlaps each pair of intervals
+        final int goBack = height == retargetInterval ? retargetInterval - 1 : retargetInterval;
+        final int intervalStart = previousHeight - goBack;
+        if (!window.contains(intervalStart)) {
+            return -1;
+        }
+        return calculateNewDifficultyTargetInner(previousHeight, window.getTime(previousHeight),
+            window.getDifficultyTarget(previousHeight), window.getTime(intervalStart),
+            nextBlock.getDifficultyTarget());
+    }
+
+    /**
+     * Check whether a block may use the minimum difficulty under Digishield,
+     * as testnet allows once no block has been found for twice the target
+     * spacing. Unlike the legacy rule this applies on every block, as
+     * Digishield retargets every block.
+     *
+     * @param previousHeight height of the block before this one.
+     * @param previousBlockTime time of the block before this one, in seconds.
+     * @param nextBlock the block being checked.
+     */
+    protected boolean allowDigishieldMinDifficultyForBlock(final int previousHeight, final long previousBlockTime,
+                                                           final Block nextBlock) {
+        if (!allowMinDifficultyBlocks() || previousHeight < DIGISHIELD_MIN_DIFFICULTY_BLOCK_HEIGHT) {
+            return false;
+        }
+        return nextBlock.time().getEpochSecond() > previousBlockTime + getTargetSpacing(previousHeight + 1) * 2;
     }
 
     /**
@@ -172,6 +277,39 @@ public abstract class AbstractDogecoinParams extends NetworkParameters implement
         return DIGISHIELD_BLOCK_HEIGHT;
     }
 
+    /**
+     * Get the number of blocks between difficulty retargets at the given
+     * height, which is every block from the Digishield height.
+     */
+    public int getRetargetInterval(final int height) {
+        return height >= getDigishieldBlockHeight() ? getNewInterval() : getInterval();
+    }
+
+    /**
+     * Get the height of the highest checkpoint for this network, or -1 if
+     * there are none. Headers at or below this height are fixed by the
+     * checkpoints, see {@link DogecoinHeaderVerifier}.
+     */
+    public int getLastCheckpointHeight() {
+        return getCheckpointIndex().getLastHeight();
+    }
+
+    /**
+     * Get an index of this network's checkpoint hashes, sorted by height. To
+     * start a block store from a checkpoint, use the network's checkpoints
+     * file instead, see {@link CheckpointIndex#load(AbstractDogecoinParams)}.
+     */
+    public CheckpointIndex getCheckpointIndex() {
+        CheckpointIndex index = checkpointIndex;
+        if (index == null) {
+            // Built on first use, as subclasses add checkpoints after this
+            // constructor has run
+            index = CheckpointIndex.of(checkpoints);
+            checkpointIndex = index;
+        }
+        return index;
+    }
+
     @Override
     public int getChainID() {
         return AUXPOW_CHAIN_ID;
@@ -183,6 +321,14 @@ public abstract class AbstractDogecoinParams extends NetworkParameters implement
      */
     public abstract boolean allowMinDifficultyBlocks();
 
+    /**
+     * Get the Dogecoin ID of this network, one of {@link #ID_DOGE_MAINNET},
+     * {@link #ID_DOGE_TESTNET} or {@link #ID_DOGE_REGTEST}. Under bitcoinj
+     * 0.17 {@link #getId()} is fixed by the underlying Bitcoin network, so
+     * cannot tell the Dogecoin networks apart.
+     */
+    public abstract String getDogecoinId();
+
     /**
      * Get the hash to use for a block.
      */
@@ -217,17 +363,79 @@ public abstract class AbstractDogecoinParams extends NetworkParameters implement
         return retargetTimespan / retargetInterval;
     }
     
-    // Methods needed for tests
-    public long calculateNewDifficultyTargetInner(int previousHeight, long previousBlockTime, 
-                                                 long previousDifficultyTarget, long currentBlockTime, 
-                                                 long currentDifficultyTarget) {
-        // Simplified implementation for testing
-        return currentDifficultyTarget;
+    /**
+     * Calculate the difficulty target of a block at a retarget.
+     *
+     * @param previousHeight height of the block before the retarget.
+     * @param previousBlockTime time of the block before the retarget.
+     * @param lastDifficultyTarget difficulty target of the block before the
+     * retarget.
+     * @param lastRetargetTime time of the block at the start of the retarget
+     * interval.
+     * @param nextDifficultyTarget difficulty target of the block being
+     * checked, whose precision the calculated target is reduced to.
+     * @return the difficulty target in compact form.
+     */
+    public long calculateNewDifficultyTargetInner(int previousHeight, long previousBlockTime,
+                                                 long lastDifficultyTarget, long lastRetargetTime,
+                                                 long nextDifficultyTarget) {
+        final int height = previousHeight + 1;
+        final boolean digishieldAlgorithm = height >= this.getDigishieldBlockHeight();
+        final int retargetTimespan = digishieldAlgorithm
+            ? this.getNewTargetTimespan()
+            : this.getTargetTimespan();
+        int actualTime = (int) (previousBlockTime - lastRetargetTime);
+        final int minTimespan;
+        final int maxTimespan;
+
+        // Limit the adjustment step
+        if (digishieldAlgorithm) {
+            // Round towards zero to match the C++ implementation
+            if (actualTime < retargetTimespan) {
+                actualTime = (int) Math.ceil(retargetTimespan + (actualTime - retargetTimespan) / 8.0);
+            } else {
+                actualTime = (int) Math.floor(retargetTimespan + (actualTime - retargetTimespan) / 8.0);
+            }
+            minTimespan = retargetTimespan - (retargetTimespan / 4);
+            maxTimespan = retargetTimespan + (retargetTimespan / 2);
+        } else if (height > 10000) {
+            minTimespan = retargetTimespan / 4;
+            maxTimespan = retargetTimespan * 4;
+        } else if (height > 5000) {
+            minTimespan = retargetTimespan / 8;
+            maxTimespan = retargetTimespan * 4;
+        } else {
+            minTimespan = retargetTimespan / 16;
+            maxTimespan = retargetTimespan * 4;
+        }
+        actualTime = Math.min(maxTimespan, Math.max(minTimespan, actualTime));
+
+        BigInteger newTarget = Utils.decodeCompactBits(lastDifficultyTarget);
+        newTarget = newTarget.multiply(BigInteger.valueOf(actualTime));
+        newTarget = newTarget.divide(BigInteger.valueOf(retargetTimespan));
+
+        if (newTarget.compareTo(this.getMaxTarget()) > 0) {
+            log.info("Difficulty hit proof of work limit: {}", newTarget.toString(16));
+            newTarget = this.getMaxTarget();
+        }
+
+        // The calculated target is more precise than the one received, so
+        // reduce it to match
+        final int accuracyBytes = (int) (nextDifficultyTarget >>> 24) - 3;
+        final BigInteger mask = BigInteger.valueOf(0xFFFFFFL).shiftLeft(accuracyBytes * 8);
+        newTarget = newTarget.and(mask);
+        return Utils.encodeCompactBits(newTarget);
     }
-    
-    public long calculateNewDifficultyTargetInner(int height, AltcoinBlock previousBlock, 
-                                                 AltcoinBlock currentBlock, AltcoinBlock blockBeforePrevious) {
-        // Simplified implementation for testing
-        return currentBlock.getDifficultyTarget();
+
+    /**
+     * Calculate the difficulty target of a block at a retarget, from the
+     * blocks either side of it and the block at the start of the retarget
+     * interval.
+     */
+    public long calculateNewDifficultyTargetInner(int previousHeight, AltcoinBlock previousBlock,
+                                                 AltcoinBlock nextBlock, AltcoinBlock blockIntervalAgo) {
+        return calculateNewDifficultyTargetInner(previousHeight, previousBlock.time().getEpochSecond(),
+            previousBlock.getDifficultyTarget(), blockIntervalAgo.time().getEpochSecond(),
+            nextBlock.getDifficultyTarget());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Network;
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.store.BlockStore;
+import org.bitcoinj.store.BlockStoreException;
+import org.libdohj.core.ChainWork;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * <p>Checkpoints of a network, sorted by height and held in parallel arrays,
+ * so the nearest checkpoint at or below a height is found by binary search.</p>
+ *
+ * <p>An index built from the hashes in {@link AbstractDogecoinParams} can
+ * only check blocks against checkpoints. An index read from a checkpoints
+ * file, as shipped for each network in the {@code CHECKPOINTS 1} format, also
+ * holds the header and chain work of each checkpoint, and can start a new
+ * block store from a checkpoint rather than from the genesis block, see
+ * {@link #bootstrap(BlockStore, int)}.</p>
+ */
+public final class CheckpointIndex {
+    /** Magic at the start of a binary checkpoints file. */
+    public static final String BINARY_MAGIC = "CHECKPOINTS 1";
+
+    private static final int SIGNATURE_SIZE = 65;
+    // Upper limit on entries, so a corrupt count cannot exhaust memory
+    private static final int MAX_CHECKPOINTS = 1 << 20;
+
+    @Nullable
+    private final Network network;
+    private final int[] heights;
+    // Hashes in big endian display order, Sha256Hash.LENGTH bytes each
+    private final byte[] hashes;
+    // Chain work and headers of each checkpoint, if known
+    @Nullable
+    private final byte[] chainWork;
+    @Nullable
+    private final byte[] headers;
+
+    private CheckpointIndex(@Nullable final Network network, final int[] heights, final byte[] hashes,
+                            @Nullable final byte[] chainWork, @Nullable final byte[] headers) {
+        this.network = network;
+        this.heights = heights;
+        this.hashes = hashes;
+        this.chainWork = chainWork;
+        this.headers = headers;
+    }
+
+    /**
+     * Build an index of the given checkpoint hashes, by height.
+     */
+    public static CheckpointIndex of(final Map<Integer, Sha256Hash> checkpoints) {
+        final int[] heights = new int[checkpoints.size()];
+        int count = 0;
+        for (int height : checkpoints.keySet()) {
+            heights[count++] = height;
+        }
+        Arrays.sort(heights);
+        final byte[] hashes = new byte[heights.length * Sha256Hash.LENGTH];
+        for (int i = 0; i < heights.length; i++) {
+            System.arraycopy(checkpoints.get(heights[i]).getBytes(), 0, hashes, i * Sha256Hash.LENGTH,
+                Sha256Hash.LENGTH);
+        }
+        return new CheckpointIndex(null, heights, hashes, null, null);
+    }
+
+    /**
+     * Read checkpoints in the binary {@code CHECKPOINTS 1} format, which are
+     * expected to be in height order. Signatures are skipped.
+     *
+     * @param network network the checkpoint headers belong to.
+     * @throws IOException if the stream cannot be read or is not a valid
+     * checkpoints file.
+     */
+    public static CheckpointIndex read(final Network network, final InputStream stream) throws IOException {
+        final DataInputStream in = new DataInputStream(stream);
+        final byte[] magic = new byte[BINARY_MAGIC.length()];
+        in.readFully(magic);
+        if (!BINARY_MAGIC.equals(new String(magic, StandardCharsets.US_ASCII))) {
+            throw new IOException("Not a binary checkpoints file");
+        }
+        final int signatures = in.readInt();
+        if (signatures < 0) {
+            throw new IOException("Invalid signature count " + signatures);
+        }
+        for (long remaining = (long) signatures * SIGNATURE_SIZE; remaining > 0; ) {
+            final int skipped = in.skipBytes((int) Math.min(remaining, Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                throw new IOException("Truncated checkpoint signatures");
+            }
+            remaining -= skipped;
+        }
+        final int count = in.readInt();
+        if (count < 0 || count > MAX_CHECKPOINTS) {
+            throw new IOException("Invalid checkpoint count " + count);
+        }
+        final int[] heights = new int[count];
+        final byte[] hashes = new byte[count * Sha256Hash.LENGTH];
+        final byte[] chainWork = new byte[count * ChainWork.SERIALIZED_LENGTH];
+        final byte[] headers = new byte[count * Block.HEADER_SIZE];
+        for (int i = 0; i < count; i++) {
+            in.readFully(chainWork, i * ChainWork.SERIALIZED_LENGTH, ChainWork.SERIALIZED_LENGTH);
+            heights[i] = in.readInt();
+            if (heights[i] < 0 || (i > 0 && heights[i] <= heights[i - 1])) {
+                throw new IOException("Checkpoint at height " + heights[i] + " is out of order");
+            }
+            in.readFully(headers, i * Block.HEADER_SIZE, Block.HEADER_SIZE);
+            final byte[] hash = Sha256Hash.hashTwice(headers, i * Block.HEADER_SIZE, Block.HEADER_SIZE);
+            // Digests are little endian, hashes are held in display order
+            for (int j = 0; j < Sha256Hash.LENGTH; j++) {
+                hashes[i * Sha256Hash.LENGTH + j] = hash[Sha256Hash.LENGTH - 1 - j];
+            }
+        }
+        return new CheckpointIndex(network, heights, hashes, chainWork, headers);
+    }
+
+    /**
+     * Load the checkpoints file shipped for the given network, named after
+     * its Dogecoin ID, and check it against the network's own checkpoints.
+     *
+     * @throws FileNotFoundException if there is no checkpoints file for the
+     * network.
+     * @throws IOException if the file cannot be read, or contradicts the
+     * network's checkpoints.
+     */
+    public static CheckpointIndex load(final AbstractDogecoinParams params) throws IOException {
+        final String name = "/" + params.getDogecoinId() + ".checkpoints";
+        final InputStream stream = CheckpointIndex.class.getResourceAsStream(name);
+        if (stream == null) {
+            throw new FileNotFoundException("No checkpoints file " + name);
+        }
+        final CheckpointIndex index;
+        try {
+            index = read(params.network(), stream);
+        } finally {
+            stream.close();
+        }
+        for (int i = 0; i < index.size(); i++) {
+            if (!params.passesCheckpoint(index.getHeight(i), index.getHash(i))) {
+                throw new IOException("Checkpoint " + index.getHash(i) + " at height " + index.getHeight(i)
+                    + " contradicts the network's checkpoints");
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Get the number of checkpoints.
+     */
+    public int size() {
+        return heights.length;
+    }
+
+    public int getHeight(final int index) {
+        return heights[index];
+    }
+
+    public Sha256Hash getHash(final int index) {
+        return Sha256Hash.wrap(Arrays.copyOfRange(hashes, index * Sha256Hash.LENGTH,
+            (index + 1) * Sha256Hash.LENGTH));
+    }
+
+    /**
+     * Get the height of the highest checkpoint, or -1 if there are none.
+     */
+    public int getLastHeight() {
+        return heights.length == 0 ? -1 : heights[heights.length - 1];
+    }
+
+    /**
+     * Find the checkpoint at the given height.
+     *
+     * @return the index of the checkpoint, or -1 if there is none at that
+     * height.
+     */
+    public int indexOf(final int height) {
+        final int index = Arrays.binarySearch(heights, height);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Find the nearest checkpoint at or below the given height.
+     *
+     * @return the index of the checkpoint, or -1 if all checkpoints are
+     * above the height.
+     */
+    public int floorIndex(final int height) {
+        final int index = Arrays.binarySearch(heights, height);
+        // Otherwise binarySearch returns -(insertion point) - 1
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Whether a block passes the checkpoints, which it does unless there is
+     * a checkpoint with a different hash at its height.
+     */
+    public boolean passes(final int height, final Sha256Hash hash) {
+        final int index = indexOf(height);
+        if (index < 0) {
+            return true;
+        }
+        final byte[] bytes = hash.getBytes();
+        final int offset = index * Sha256Hash.LENGTH;
+        for (int i = 0; i < Sha256Hash.LENGTH; i++) {
+            if (hashes[offset + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the headers and chain work of the checkpoints are known, as
+     * needed to start a block store from a checkpoint.
+     */
+    public boolean hasStoredBlocks() {
+        return headers != null;
+    }
+
+    /**
+     * Get a checkpoint as a stored block, with its header and chain work.
+     *
+     * @throws IllegalStateException if the index only holds hashes.
+     */
+    public StoredBlock getStoredBlock(final int index) {
+        if (headers == null || chainWork == null) {
+            throw new IllegalStateException("Checkpoint headers are not known");
+        }
+        final AltcoinBlock header = AltcoinBlock.readHeader(network,
+            ByteBuffer.wrap(headers, index * Block.HEADER_SIZE, Block.HEADER_SIZE));
+        final ChainWork work = new ChainWork().read(ByteBuffer.wrap(chainWork),
+            index * ChainWork.SERIALIZED_LENGTH);
+        return new StoredBlock(header, work.toBigInteger(), heights[index]);
+    }
+
+    /**
+     * Start a block store from the nearest checkpoint at or below the given
+     * height, storing it with its chain work and making it the chain head.
+     * The chain is then synced from the checkpoint, rather than from the
+     * genesis block.
+     *
+     * @return the checkpoint the store now starts from.
+     * @throws BlockStoreException if there is no checkpoint at or below the
+     * height, or the block cannot be stored.
+     */
+    public StoredBlock bootstrap(final BlockStore store, final int height) throws BlockStoreException {
+        final int index = floorIndex(height);
+        if (index < 0) {
+            throw new BlockStoreException("No checkpoint at or below height " + height);
+        }
+        if (!hasStoredBlocks()) {
+            throw new BlockStoreException("Checkpoint headers are not known");
+        }
+        final StoredBlock checkpoint = getStoredBlock(index);
+        store.put(checkpoint);
+        store.setChainHead(checkpoint);
+        return checkpoint;
+    }
+}
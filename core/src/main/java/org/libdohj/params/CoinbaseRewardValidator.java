@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.AuxPoW;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.ProtocolException;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.core.VerificationException;
+import org.libdohj.core.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * <p>Checks that the coinbase transaction of a block pays no more than the
+ * block subsidy at its height plus the fees of the other transactions in the
+ * block. Fees depend on the outputs the block spends, so are worked out by
+ * the caller.</p>
+ *
+ * <p>Blocks are best checked as serialized, with
+ * {@link #verifyCoinbase(int, ByteBuffer, long)}, which reads the coinbase
+ * output values straight from the buffer and sums them as longs, without
+ * decoding the block. {@link #verifyBlocks(int, List, long[])} does the same
+ * for a run of consecutive blocks, such as when replaying blocks from disk,
+ * looking up the subsidy only where it changes.</p>
+ *
+ * <p>Up until the Digishield hard fork, subsidy was random up to a maximum,
+ * and those blocks are only checked against the maximum, see
+ * {@link AbstractDogecoinParams#getSubsidySchedule()}.</p>
+ */
+public class CoinbaseRewardValidator {
+    private final DogecoinSubsidySchedule schedule;
+
+    public CoinbaseRewardValidator(final AbstractDogecoinParams params) {
+        this.schedule = params.getSubsidySchedule();
+    }
+
+    /**
+     * Verify the coinbase of a decoded block.
+     *
+     * @param height height of the block.
+     * @param block block including its transactions.
+     * @param fees total fees of the other transactions in the block, in koinu.
+     * @throws VerificationException if the block has no coinbase, or the
+     * coinbase pays too much.
+     */
+    public void verifyCoinbase(final int height, final Block block, final long fees)
+            throws VerificationException {
+        final List<Transaction> transactions = block.getTransactions();
+        if (transactions == null || transactions.isEmpty()) {
+            throw new VerificationException("Block " + block.getHash() + " at height " + height
+                + " has no coinbase");
+        }
+        long total = 0;
+        for (TransactionOutput output : transactions.get(0).getOutputs()) {
+            total = addOutput(total, output.getValue().value, height);
+        }
+        checkReward(height, total, schedule.getBlockSubsidyValue(height), fees);
+    }
+
+    /**
+     * Verify the coinbase of a serialized block, starting at the buffer's
+     * position. The position is not moved.
+     *
+     * @param height height of the block.
+     * @param block serialized block including its transactions.
+     * @param fees total fees of the other transactions in the block, in koinu.
+     * @throws ProtocolException if the block cannot be read.
+     * @throws VerificationException if the block has no coinbase, or the
+     * coinbase pays too much.
+     */
+    public void verifyCoinbase(final int height, final ByteBuffer block, final long fees)
+            throws ProtocolException, VerificationException {
+        checkReward(height, sumCoinbaseOutputs(height, block), schedule.getBlockSubsidyValue(height), fees);
+    }
+
+    /**
+     * Verify the coinbases of a run of consecutive serialized blocks, stopping
+     * at the first which fails.
+     *
+     * @param startHeight height of the first block.
+     * @param blocks serialized blocks in chain order, read from their
+     * positions, which are not moved.
+     * @param fees total fees of the other transactions of each block, in koinu.
+     * @throws ProtocolException if a block cannot be read.
+     * @throws VerificationException if a block has no coinbase, or its
+     * coinbase pays too much.
+     */
+    public void verifyBlocks(final int startHeight, final List<ByteBuffer> blocks, final long[] fees)
+            throws ProtocolException, VerificationException {
+        if (fees.length != blocks.size()) {
+            throw new IllegalArgumentException("Expected fees for " + blocks.size() + " blocks, got "
+                + fees.length);
+        }
+        long subsidy = 0;
+        int nextChangeHeight = startHeight;
+        for (int i = 0; i < fees.length; i++) {
+            final int height = startHeight + i;
+            if (height >= nextChangeHeight) {
+                subsidy = schedule.getBlockSubsidyValue(height);
+                nextChangeHeight = schedule.getNextChangeHeight(height);
+            }
+            checkReward(height, sumCoinbaseOutputs(height, blocks.get(i)), subsidy, fees[i]);
+        }
+    }
+
+    /**
+     * Sum the output values of the coinbase of a serialized block, skipping
+     * the header, any AuxPoW header and the coinbase inputs.
+     */
+    private static long sumCoinbaseOutputs(final int height, final ByteBuffer block)
+            throws ProtocolException, VerificationException {
+        final ByteBuffer buf = block.duplicate();
+        final int start = buf.position();
+        WireFormat.skip(buf, Block.HEADER_SIZE);
+        final long version = WireFormat.getUint32(buf, start);
+        if ((version & AltcoinBlock.BLOCK_VERSION_FLAG_AUXPOW) != 0) {
+            AuxPoW.skip(buf);
+        }
+        if (!buf.hasRemaining() || WireFormat.readVarInt(buf) == 0) {
+            throw new VerificationException("Block at height " + height + " has no coinbase");
+        }
+        WireFormat.skip(buf, 4); // Version
+        int inputCount = WireFormat.readCount(buf, 41);
+        if (inputCount == 0) {
+            // Segregated witness marker, which is followed by a flag
+            WireFormat.skip(buf, 1);
+            inputCount = WireFormat.readCount(buf, 41);
+        }
+        for (int i = 0; i < inputCount; i++) {
+            WireFormat.skip(buf, 36); // Outpoint
+            WireFormat.skipBytes(buf); // Script
+            WireFormat.skip(buf, 4); // Sequence
+        }
+        final int outputCount = WireFormat.readCount(buf, 9);
+        long total = 0;
+        for (int i = 0; i < outputCount; i++) {
+            total = addOutput(total, WireFormat.readInt64(buf), height);
+            WireFormat.skipBytes(buf); // Script
+        }
+        return total;
+    }
+
+    private static long addOutput(final long total, final long value, final int height)
+            throws VerificationException {
+        if (value < 0 || total + value < 0) {
+            throw new VerificationException("Coinbase of block at height " + height
+                + " has an output value out of range");
+        }
+        return total + value;
+    }
+
+    private static void checkReward(final int height, final long total, final long subsidy, final long fees)
+            throws VerificationException {
+        if (fees < 0) {
+            throw new IllegalArgumentException("Negative fees " + fees);
+        }
+        // Both are non-negative, so the difference cannot overflow
+        if (total - fees > subsidy) {
+            throw new VerificationException("Coinbase of block at height " + height + " pays " + total
+                + " koinu, more than the subsidy of " + subsidy + " plus fees of " + fees);
+        }
+    }
+}
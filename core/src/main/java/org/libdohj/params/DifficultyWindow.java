@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.store.BlockStore;
+import org.bitcoinj.store.BlockStoreException;
+import org.libdohj.core.Utils;
+
+/**
+ * <p>The times and difficulty targets of the most recent blocks of a chain,
+ * as needed to calculate the difficulty of the next block, see
+ * {@link AbstractDogecoinParams#calculateNewDifficultyTarget(DifficultyWindow, Block)}.</p>
+ *
+ * <p>The window is a ring buffer covering one legacy retarget interval, so the
+ * block an interval before the tip can be found without reading the block
+ * store. It is advanced one block at a time as headers connect, and only
+ * rebuilt from the store when the chain reorganises. Not thread safe.</p>
+ */
+public class DifficultyWindow {
+    /** Upper limit on the window size, for networks which never retarget. */
+    private static final int MAX_CAPACITY = 1 << 16;
+
+    private final AbstractDogecoinParams params;
+    private final long minDifficultyTarget;
+    private final int capacity;
+    private final long[] times;
+    private final long[] difficultyTargets;
+    // The target of the last block which was not mined under the testnet
+    // minimum difficulty rule, as of each block
+    private final long[] lastNormalDifficultyTargets;
+
+    private Sha256Hash tipHash;
+    private int tipHeight = -1;
+    private int size;
+
+    public DifficultyWindow(final AbstractDogecoinParams params) {
+        this.params = params;
+        this.minDifficultyTarget = Utils.encodeCompactBits(params.getMaxTarget());
+        this.capacity = (int) Math.min(MAX_CAPACITY,
+            Math.max(params.getInterval(), params.getNewInterval()) + 1L);
+        this.times = new long[capacity];
+        this.difficultyTargets = new long[capacity];
+        this.lastNormalDifficultyTargets = new long[capacity];
+    }
+
+    /**
+     * Get the hash of the most recent block in the window, or null if the
+     * window is empty.
+     */
+    public Sha256Hash getTipHash() {
+        return tipHash;
+    }
+
+    /**
+     * Get the height of the most recent block in the window, or -1 if the
+     * window is empty.
+     */
+    public int getTipHeight() {
+        return tipHeight;
+    }
+
+    /**
+     * Whether the window holds the block at the given height.
+     */
+    public boolean contains(final int height) {
+        return height <= tipHeight && height > tipHeight - size && height >= 0;
+    }
+
+    /**
+     * Get the time of the block at the given height, which must be in the
+     * window.
+     */
+    public long getTime(final int height) {
+        return times[index(height)];
+    }
+
+    /**
+     * Get the difficulty target of the block at the given height, which must
+     * be in the window.
+     */
+    public long getDifficultyTarget(final int height) {
+        return difficultyTargets[index(height)];
+    }
+
+    /**
+     * Get the difficulty target of the most recent block at or before the
+     * given height which was not mined under the minimum difficulty rule, or
+     * which starts a retarget interval.
+     */
+    public long getLastNormalDifficultyTarget(final int height) {
+        return lastNormalDifficultyTargets[index(height)];
+    }
+
+    /**
+     * Move the window so its tip is the given block, appending it if it
+     * follows the current tip, and otherwise rebuilding the window from the
+     * block store.
+     */
+    public void moveTo(final StoredBlock block, final BlockStore store) throws BlockStoreException {
+        final Block header = block.getHeader();
+        if (tipHash != null && tipHash.equals(header.getHash())) {
+            return;
+        }
+        if (tipHash != null && block.getHeight() == tipHeight + 1
+                && tipHash.equals(header.getPrevBlockHash())) {
+            append(block.getHeight(), header);
+        } else {
+            rebuild(block, store);
+        }
+    }
+
+    /**
+     * Add the next block to the window. If it does not follow the current
+     * tip, the window is restarted from this block.
+     */
+    public void connect(final StoredBlock block) {
+        final Block header = block.getHeader();
+        if (tipHash == null || block.getHeight() != tipHeight + 1
+                || !tipHash.equals(header.getPrevBlockHash())) {
+            clear();
+        }
+        append(block.getHeight(), header);
+    }
+
+    /**
+     * Fill the window with the chain ending at the given block, reading as
+     * far back as the next difficulty calculation needs, or until the block
+     * store runs out of blocks.
+     */
+    public void rebuild(final StoredBlock head, final BlockStore store) throws BlockStoreException {
+        final int depth = Math.min(capacity, params.getRetargetInterval(head.getHeight() + 1) + 1);
+        final StoredBlock[] blocks = new StoredBlock[depth];
+        int count = 0;
+        StoredBlock cursor = head;
+        while (cursor != null && count < depth) {
+            blocks[count++] = cursor;
+            cursor = cursor.getHeight() > 0 ? store.get(cursor.getHeader().getPrevBlockHash()) : null;
+        }
+        clear();
+        for (int i = count - 1; i >= 0; i--) {
+            append(blocks[i].getHeight(), blocks[i].getHeader());
+        }
+    }
+
+    /**
+     * Empty the window.
+     */
+    public void clear() {
+        tipHash = null;
+        tipHeight = -1;
+        size = 0;
+    }
+
+    private void append(final int height, final Block header) {
+        final int index = height % capacity;
+        final long difficultyTarget = header.getDifficultyTarget();
+        final boolean normal = height % params.getRetargetInterval(height) == 0
+            || difficultyTarget != minDifficultyTarget;
+        lastNormalDifficultyTargets[index] = normal || size == 0
+            ? difficultyTarget
+            : lastNormalDifficultyTargets[index(tipHeight)];
+        times[index] = header.time().getEpochSecond();
+        difficultyTargets[index] = difficultyTarget;
+        tipHash = header.getHash();
+        tipHeight = height;
+        size = Math.min(size + 1, capacity);
+    }
+
+    private int index(final int height) {
+        if (!contains(height)) {
+            throw new IllegalArgumentException("Height " + height + " is not in the window ending at "
+                + tipHeight);
+        }
+        return height % capacity;
+    }
+}
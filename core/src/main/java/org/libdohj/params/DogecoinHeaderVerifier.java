@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.AuxPoW;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.core.VerificationException;
+import org.libdohj.core.ScryptProofOfWorkVerifier;
+
+import java.util.List;
+
+/**
+ * <p>Verifies Dogecoin block headers during header sync.</p>
+ *
+ * <p>Every header is checked to connect to its predecessor, and to match any
+ * checkpoint at its height. In {@link Mode#FULL} mode the proof of work is
+ * then checked as well: the Scrypt hash of the header for ordinary blocks, or
+ * the AuxPoW header (parent coinbase, merged mining header and merkle
+ * branches) for merged-mined blocks.</p>
+ *
+ * <p>In {@link Mode#CHECKPOINTED} mode, proof of work is not checked for
+ * headers at or below the highest checkpoint. The chain up to that height is
+ * fixed by the checkpoint hashes and the linkage between headers, so checking
+ * the work adds no security there, while AuxPoW validation in particular is
+ * far more expensive than hashing. Above the highest checkpoint headers are
+ * always fully verified.</p>
+ *
+ * <p>Full blocks are verified with {@link #verifyBlock(int, Sha256Hash,
+ * AltcoinBlock, long)}, which checks the header as above, then the merkle
+ * root of the transactions, and then the coinbase reward with a
+ * {@link CoinbaseRewardValidator}. The coinbase is checked regardless of mode,
+ * as checkpoints fix only the headers.</p>
+ */
+public class DogecoinHeaderVerifier {
+    /**
+     * How much of the chain has its proof of work verified.
+     */
+    public enum Mode {
+        /** Verify the proof of work of every header. */
+        FULL,
+        /** Skip proof of work for headers fixed by checkpoints. */
+        CHECKPOINTED
+    }
+
+    private final AbstractDogecoinParams params;
+    private final Mode mode;
+    private final int lastCheckpointHeight;
+    private final CoinbaseRewardValidator coinbaseValidator;
+
+    public DogecoinHeaderVerifier(final AbstractDogecoinParams params, final Mode mode) {
+        this.params = params;
+        this.mode = mode;
+        this.lastCheckpointHeight = params.getLastCheckpointHeight();
+        this.coinbaseValidator = new CoinbaseRewardValidator(params);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Whether the header at the given height is only checked for linkage and
+     * against checkpoints, rather than having its proof of work verified.
+     */
+    public boolean isHeaderOnly(final int height) {
+        return mode == Mode.CHECKPOINTED && height <= lastCheckpointHeight;
+    }
+
+    /**
+     * Verify a header which is to follow the given stored block.
+     *
+     * @throws VerificationException if the header is not valid.
+     */
+    public void verifyHeader(final StoredBlock previous, final AltcoinBlock header)
+            throws VerificationException {
+        verifyHeader(previous.getHeight() + 1, previous.getHeader().getHash(), header);
+    }
+
+    /**
+     * Verify a header at the given height.
+     *
+     * @param height height of the header being verified.
+     * @param previousHash hash of the block at the height before.
+     * @param header header to verify.
+     * @throws VerificationException if the header is not valid.
+     */
+    public void verifyHeader(final int height, final Sha256Hash previousHash, final AltcoinBlock header)
+            throws VerificationException {
+        verifyLinkage(height, previousHash, header);
+        verifyProofOfWork(height, header);
+    }
+
+    /**
+     * Verify that a header connects to the previous block, and matches any
+     * checkpoint at its height. This is cheap, but needs the headers in chain
+     * order.
+     *
+     * @throws VerificationException if the header does not connect or does
+     * not match a checkpoint.
+     */
+    public void verifyLinkage(final int height, final Sha256Hash previousHash, final AltcoinBlock header)
+            throws VerificationException {
+        final Sha256Hash hash = header.getHash();
+        if (!previousHash.equals(header.getPrevBlockHash())) {
+            throw new VerificationException("Header " + hash + " at height " + height
+                + " does not connect to previous block " + previousHash);
+        }
+        if (!params.passesCheckpoint(height, hash)) {
+            throw new VerificationException("Header " + hash + " does not match checkpoint at height "
+                + height);
+        }
+    }
+
+    /**
+     * Verify the proof of work of a header at the given height, unless the
+     * height is fixed by checkpoints, see {@link #isHeaderOnly(int)}. This
+     * depends on nothing but the header itself, so headers can be verified
+     * in parallel and out of order.
+     *
+     * @throws VerificationException if the proof of work is not valid.
+     */
+    public void verifyProofOfWork(final int height, final AltcoinBlock header) throws VerificationException {
+        if (isHeaderOnly(height)) {
+            return;
+        }
+        verifyProofOfWork(header);
+    }
+
+    /**
+     * Verify a run of consecutive headers.
+     *
+     * @param startHeight height of the first header.
+     * @param previousHash hash of the block before the first header.
+     * @param headers headers to verify, in chain order.
+     * @throws VerificationException if any header is not valid.
+     */
+    public void verifyHeaders(final int startHeight, final Sha256Hash previousHash,
+                              final List<AltcoinBlock> headers) throws VerificationException {
+        Sha256Hash expectedPrevious = previousHash;
+        for (int i = 0; i < headers.size(); i++) {
+            final AltcoinBlock header = headers.get(i);
+            verifyHeader(startHeight + i, expectedPrevious, header);
+            expectedPrevious = header.getHash();
+        }
+    }
+
+    /**
+     * Verify a full block which is to follow the given stored block.
+     *
+     * @param fees total fees of the other transactions in the block, in koinu.
+     * @throws VerificationException if the block is not valid.
+     */
+    public void verifyBlock(final StoredBlock previous, final AltcoinBlock block, final long fees)
+            throws VerificationException {
+        verifyBlock(previous.getHeight() + 1, previous.getHeader().getHash(), block, fees);
+    }
+
+    /**
+     * Verify a full block at the given height: its header, the merkle root of
+     * its transactions, and that its coinbase pays no more than the subsidy
+     * plus fees.
+     *
+     * @param height height of the block being verified.
+     * @param previousHash hash of the block at the height before.
+     * @param block block including its transactions.
+     * @param fees total fees of the other transactions in the block, in koinu.
+     * Fees depend on the outputs the block spends, so are worked out by the
+     * caller.
+     * @throws VerificationException if the block is not valid.
+     */
+    public void verifyBlock(final int height, final Sha256Hash previousHash, final AltcoinBlock block,
+                            final long fees) throws VerificationException {
+        verifyHeader(height, previousHash, block);
+        block.verifyMerkleRoot();
+        coinbaseValidator.verifyCoinbase(height, block, fees);
+    }
+
+    /**
+     * Get the validator used to check coinbase rewards, such as to check runs
+     * of serialized blocks with
+     * {@link CoinbaseRewardValidator#verifyBlocks(int, List, long[])} when
+     * replaying blocks from disk.
+     */
+    public CoinbaseRewardValidator getCoinbaseValidator() {
+        return coinbaseValidator;
+    }
+
+    private void verifyProofOfWork(final AltcoinBlock header) throws VerificationException {
+        final long version = header.getRawVersion();
+        if (params.isAuxPoWBlockVersion(version)) {
+            final AuxPoW auxpow = header.getAuxPoW();
+            if (auxpow == null) {
+                throw new VerificationException("Header " + header.getHash()
+                    + " is flagged as merged-mined but has no AuxPoW header");
+            }
+            auxpow.checkAuxBlock(header.getHash(), params.getChainID());
+            auxpow.checkProofOfWork(header.getDifficultyTarget(), true);
+        } else {
+            final byte[] serialized = new byte[ScryptProofOfWorkVerifier.HEADER_LENGTH];
+            header.writeHeader(serialized, 0);
+            if (!ScryptProofOfWorkVerifier.checkProofOfWork(serialized)) {
+                throw new VerificationException("Scrypt hash of header " + header.getHash()
+                    + " is higher than its target");
+            }
+        }
+    }
+}
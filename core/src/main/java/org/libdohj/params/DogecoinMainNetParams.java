@@ -98,6 +98,11 @@ public class DogecoinMainNetParams extends AbstractDogecoinParams {
         return false;
     }
 
+    @Override
+    public String getDogecoinId() {
+        return ID_DOGE_MAINNET;
+    }
+
     @Override
     public String getPaymentProtocolId() {
         return ID_DOGE_MAINNET;
@@ -79,6 +79,11 @@ public class DogecoinRegTestParams extends DogecoinTestNet3Params {
         return instance;
     }
 
+    @Override
+    public String getDogecoinId() {
+        return ID_DOGE_REGTEST;
+    }
+
     @Override
     public String getPaymentProtocolId() {
         return ID_DOGE_REGTEST;
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Coin;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * <p>The block subsidy of a Dogecoin network at every height, worked out once
+ * and held as a table of the heights at which the subsidy changes.</p>
+ *
+ * <p>The subsidy halves every {@code subsidyDecreaseBlockCount} blocks. Up
+ * until the Digishield hard fork, subsidy was random up to twice that amount,
+ * and the table holds the maximum, as checkpoints enforce the actual values.
+ * From {@code stableHeight} the subsidy is fixed. Each run of heights with the
+ * same subsidy is one entry in the table, along with the total subsidy of all
+ * blocks before it, so both the subsidy of a block and the total subsidy up to
+ * a block are found by a binary search over a handful of entries.</p>
+ */
+public final class DogecoinSubsidySchedule {
+    // Height each entry starts at, ascending from zero
+    private final int[] startHeights;
+    // Subsidy of every block in each entry, in koinu
+    private final long[] subsidies;
+    private final Coin[] subsidyCoins;
+    // Total subsidy of all blocks below each entry, in koinu, which is
+    // beyond the range of a long after a few hundred thousand blocks
+    private final BigInteger[] totals;
+
+    /**
+     * Work out the subsidy schedule of a network.
+     *
+     * @param subsidyDecreaseBlockCount number of blocks between halvings.
+     * @param digishieldHeight height the Digishield hard fork activates at,
+     * below which subsidy was up to twice the base subsidy.
+     * @param stableHeight height from which the subsidy is fixed.
+     * @param baseSubsidy subsidy before the first halving.
+     * @param stableSubsidy subsidy from {@code stableHeight}.
+     */
+    public DogecoinSubsidySchedule(final int subsidyDecreaseBlockCount, final int digishieldHeight,
+                                   final int stableHeight, final Coin baseSubsidy, final Coin stableSubsidy) {
+        if (subsidyDecreaseBlockCount < 1 || digishieldHeight < 0 || stableHeight < 0) {
+            throw new IllegalArgumentException("Invalid subsidy schedule");
+        }
+        // Every height the subsidy may change at, merging runs which happen
+        // to have the same subsidy
+        int[] starts = new int[16];
+        long[] amounts = new long[16];
+        int count = 0;
+        int height = 0;
+        while (true) {
+            final long subsidy = calculateSubsidy(height, subsidyDecreaseBlockCount, digishieldHeight,
+                stableHeight, baseSubsidy.value, stableSubsidy.value);
+            if (count == 0 || amounts[count - 1] != subsidy) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    amounts = Arrays.copyOf(amounts, count * 2);
+                }
+                starts[count] = height;
+                amounts[count] = subsidy;
+                count++;
+            }
+            if (height >= stableHeight) {
+                break;
+            }
+            final long nextHalving = ((long) height / subsidyDecreaseBlockCount + 1) * subsidyDecreaseBlockCount;
+            long next = Math.min(nextHalving, stableHeight);
+            if (height < digishieldHeight) {
+                next = Math.min(next, digishieldHeight);
+            }
+            height = (int) next;
+        }
+
+        this.startHeights = Arrays.copyOf(starts, count);
+        this.subsidies = Arrays.copyOf(amounts, count);
+        this.subsidyCoins = new Coin[count];
+        this.totals = new BigInteger[count];
+        BigInteger total = BigInteger.ZERO;
+        for (int i = 0; i < count; i++) {
+            subsidyCoins[i] = Coin.valueOf(subsidies[i]);
+            totals[i] = total;
+            if (i + 1 < count) {
+                total = total.add(BigInteger.valueOf(subsidies[i])
+                    .multiply(BigInteger.valueOf(startHeights[i + 1] - startHeights[i])));
+            }
+        }
+    }
+
+    private static long calculateSubsidy(final int height, final int subsidyDecreaseBlockCount,
+                                         final int digishieldHeight, final int stableHeight,
+                                         final long baseSubsidy, final long stableSubsidy) {
+        if (height >= stableHeight) {
+            return stableSubsidy;
+        }
+        final int halvings = height / subsidyDecreaseBlockCount;
+        // Shifting a long by 64 or more wraps around rather than reaching zero
+        final long subsidy = halvings >= Long.SIZE ? 0 : baseSubsidy >> halvings;
+        return height < digishieldHeight ? subsidy * 2 : subsidy;
+    }
+
+    /**
+     * Get the number of runs of heights with the same subsidy.
+     */
+    public int size() {
+        return startHeights.length;
+    }
+
+    /**
+     * Get the subsidy of the block at the given height.
+     */
+    public Coin getBlockSubsidy(final int height) {
+        return subsidyCoins[entryAt(height)];
+    }
+
+    /**
+     * Get the subsidy of the block at the given height, in koinu.
+     */
+    public long getBlockSubsidyValue(final int height) {
+        return subsidies[entryAt(height)];
+    }
+
+    /**
+     * Get the first height above the given height at which the subsidy
+     * changes, or {@link Integer#MAX_VALUE} if it never changes again. The
+     * subsidy of a run of blocks below that height need only be looked up
+     * once.
+     */
+    public int getNextChangeHeight(final int height) {
+        final int entry = entryAt(height) + 1;
+        return entry < startHeights.length ? startHeights[entry] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the total subsidy of all blocks from the genesis block up to and
+     * including the given height, in koinu. Before the Digishield hard fork
+     * this counts the maximum subsidy, so is an upper bound on the coins
+     * actually issued.
+     *
+     * @param height height of the last block to count, or -1 for none.
+     */
+    public BigInteger getCumulativeSubsidy(final int height) {
+        if (height < 0) {
+            return BigInteger.ZERO;
+        }
+        final int entry = entryAt(height);
+        final long blocks = (long) height - startHeights[entry] + 1;
+        return totals[entry].add(BigInteger.valueOf(subsidies[entry]).multiply(BigInteger.valueOf(blocks)));
+    }
+
+    private int entryAt(final int height) {
+        if (height < 0) {
+            throw new IllegalArgumentException("Negative height " + height);
+        }
+        final int index = Arrays.binarySearch(startHeights, height);
+        // Otherwise binarySearch returns -(insertion point) - 1, and the first
+        // entry starts at zero
+        return index >= 0 ? index : -index - 2;
+    }
+}
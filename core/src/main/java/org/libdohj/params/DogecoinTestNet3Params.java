@@ -83,6 +83,11 @@ public class DogecoinTestNet3Params extends AbstractDogecoinParams {
         return true;
     }
 
+    @Override
+    public String getDogecoinId() {
+        return ID_DOGE_TESTNET;
+    }
+
     @Override
     public String getPaymentProtocolId() {
         // TODO: CHANGE ME
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.MessageSerializer;
+import org.bitcoinj.core.ProtocolException;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.core.VerificationException;
+import org.bitcoinj.store.BlockStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Connects a run of consecutive headers received during header sync,
+ * overlapping parsing and proof of work verification with the network
+ * thread.</p>
+ *
+ * <p>Serialized headers are handed over with {@link #submit(ByteBuffer)} as
+ * they arrive. Each is parsed on a parse worker, then has its proof of work
+ * verified on a verify worker, both of which work on any number of headers at
+ * once and in any order. A single connect thread then takes the headers in
+ * the order they were submitted, checks each connects to the one before and
+ * matches any checkpoint, and passes it to the {@link Connector}.</p>
+ *
+ * <p>At most {@code capacity} headers wait to be connected; past that,
+ * {@link #submit(ByteBuffer)} blocks, so a slow stage holds back the network
+ * rather than letting headers pile up in memory. The first header which fails
+ * to parse, verify or connect stops the pipeline, and the failure is reported
+ * by the next call to {@link #submit(ByteBuffer)} or {@link #flush()}.</p>
+ */
+public class HeaderSyncPipeline implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(HeaderSyncPipeline.class);
+
+    /** Default number of headers waiting to connect, one full headers message. */
+    public static final int DEFAULT_CAPACITY = 2000;
+
+    /**
+     * Receives headers from the connect stage, in chain order.
+     */
+    public interface Connector {
+        /**
+         * Connect a verified header to the chain.
+         *
+         * @param height height of the header.
+         * @param header header which follows the last one connected.
+         */
+        void connect(int height, AltcoinBlock header) throws BlockStoreException, VerificationException;
+    }
+
+    // Marks the end of the connect queue on close
+    private static final Entry SHUTDOWN = new Entry(-1, null, null);
+
+    private final MessageSerializer serializer;
+    private final DogecoinHeaderVerifier verifier;
+    private final Connector connector;
+    private final ExecutorService parseWorkers;
+    private final ExecutorService verifyWorkers;
+    private final BlockingQueue<Entry> connectQueue;
+    private final Thread connectThread;
+
+    // Guarded by this
+    private int nextHeight;
+    // Written under this, also read by the connect thread
+    private volatile boolean closed;
+
+    private Sha256Hash previousHash;
+    private volatile int connectedHeight;
+    private volatile Throwable failure;
+
+    /**
+     * Start a pipeline with one parse worker, a verify worker per processor,
+     * and room for {@link #DEFAULT_CAPACITY} headers.
+     *
+     * @param start block the first submitted header follows.
+     */
+    public HeaderSyncPipeline(final AbstractDogecoinParams params, final DogecoinHeaderVerifier verifier,
+                              final StoredBlock start, final Connector connector) {
+        this(params, verifier, start, connector, 1, Runtime.getRuntime().availableProcessors(),
+            DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Start a pipeline.
+     *
+     * @param start block the first submitted header follows.
+     * @param parseThreads number of parse workers.
+     * @param verifyThreads number of proof of work workers.
+     * @param capacity number of headers which may wait to be connected.
+     */
+    public HeaderSyncPipeline(final AbstractDogecoinParams params, final DogecoinHeaderVerifier verifier,
+                              final StoredBlock start, final Connector connector,
+                              final int parseThreads, final int verifyThreads, final int capacity) {
+        if (parseThreads < 1 || verifyThreads < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Pipeline needs at least one thread per stage and a capacity of one");
+        }
+        this.serializer = params.getDefaultSerializer();
+        this.verifier = verifier;
+        this.connector = connector;
+        this.parseWorkers = Executors.newFixedThreadPool(parseThreads, new WorkerThreadFactory("parse"));
+        this.verifyWorkers = Executors.newFixedThreadPool(verifyThreads, new WorkerThreadFactory("verify"));
+        this.connectQueue = new ArrayBlockingQueue<>(capacity);
+        this.previousHash = start.getHeader().getHash();
+        this.nextHeight = start.getHeight() + 1;
+        this.connectedHeight = start.getHeight();
+        this.connectThread = new Thread(this::runConnect, "Header sync connect");
+        this.connectThread.setDaemon(true);
+        this.connectThread.start();
+    }
+
+    /**
+     * Submit the next serialized header, which the pipeline takes ownership
+     * of. Blocks while the pipeline is full.
+     *
+     * @throws ExecutionException if an earlier header failed, with the
+     * failure as its cause.
+     */
+    public synchronized void submit(final ByteBuffer payload) throws InterruptedException, ExecutionException {
+        checkRunning();
+        final int height = nextHeight++;
+        final CompletableFuture<AltcoinBlock> header = CompletableFuture
+            .supplyAsync(() -> parse(payload), parseWorkers)
+            .thenApplyAsync(block -> {
+                verifier.verifyProofOfWork(height, block);
+                return block;
+            }, verifyWorkers);
+        connectQueue.put(new Entry(height, header, null));
+    }
+
+    /**
+     * Wait until every header submitted so far has been connected.
+     *
+     * @throws ExecutionException if a header failed, with the failure as its
+     * cause.
+     */
+    public void flush() throws InterruptedException, ExecutionException {
+        final CountDownLatch flushed = new CountDownLatch(1);
+        synchronized (this) {
+            checkRunning();
+            connectQueue.put(new Entry(-1, null, flushed));
+        }
+        flushed.await();
+        checkFailure();
+    }
+
+    /**
+     * Get the height of the last header connected.
+     */
+    public int getConnectedHeight() {
+        return connectedHeight;
+    }
+
+    /**
+     * Get the failure which stopped the pipeline, or null if it is running.
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Stop the pipeline. Headers which are not yet connected are discarded,
+     * so call {@link #flush()} first to connect them. Waits for any header
+     * being connected; if the calling thread is interrupted meanwhile, it
+     * keeps waiting and the interrupt is restored on return.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        // Nothing more is queued once closed, and the connect thread discards
+        // everything queued, so this waits at most for one header to connect
+        Uninterruptibles.putUninterruptibly(connectQueue, SHUTDOWN);
+        Uninterruptibles.joinUninterruptibly(connectThread);
+        parseWorkers.shutdownNow();
+        verifyWorkers.shutdownNow();
+    }
+
+    private void checkRunning() throws ExecutionException {
+        if (closed) {
+            throw new IllegalStateException("Header sync pipeline is closed");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws ExecutionException {
+        final Throwable cause = failure;
+        if (cause != null) {
+            throw new ExecutionException("Header sync stopped after height " + connectedHeight, cause);
+        }
+    }
+
+    private AltcoinBlock parse(final ByteBuffer payload) {
+        final Block block = serializer.makeBlock(payload);
+        if (!(block instanceof AltcoinBlock)) {
+            throw new ProtocolException("Expected an AltcoinBlock header, got " + block.getClass().getName());
+        }
+        return (AltcoinBlock) block;
+    }
+
+    private void runConnect() {
+        while (true) {
+            final Entry entry;
+            try {
+                entry = connectQueue.take();
+            } catch (InterruptedException e) {
+                // The thread belongs to the pipeline, so an interrupt stops the
+                // pipeline, but the queue is still drained so nothing waiting on
+                // it blocks forever
+                fail(connectedHeight + 1, e);
+                continue;
+            }
+            if (entry == SHUTDOWN) {
+                return;
+            }
+            if (entry.flushed != null) {
+                entry.flushed.countDown();
+            } else if (closed || failure != null) {
+                // Discard the rest of the queue
+                entry.header.cancel(false);
+            } else {
+                connect(entry);
+            }
+        }
+    }
+
+    private void connect(final Entry entry) {
+        try {
+            final AltcoinBlock header = entry.header.get();
+            verifier.verifyLinkage(entry.height, previousHash, header);
+            connector.connect(entry.height, header);
+            previousHash = header.getHash();
+            connectedHeight = entry.height;
+        } catch (ExecutionException e) {
+            fail(entry.height, e.getCause());
+        } catch (InterruptedException | BlockStoreException | RuntimeException e) {
+            fail(entry.height, e);
+        }
+    }
+
+    private void fail(final int height, final Throwable cause) {
+        if (failure != null) {
+            // Only the first failure is reported
+            return;
+        }
+        log.warn("Header sync failed at height {}", height, cause);
+        failure = cause;
+    }
+
+    private static final class Entry {
+        final int height;
+        final CompletableFuture<AltcoinBlock> header;
+        final CountDownLatch flushed;
+
+        Entry(final int height, final CompletableFuture<AltcoinBlock> header, final CountDownLatch flushed) {
+            this.height = height;
+            this.header = header;
+            this.flushed = flushed;
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final String stage;
+        private final AtomicInteger count = new AtomicInteger();
+
+        WorkerThreadFactory(final String stage) {
+            this.stage = stage;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "Header sync " + stage + " " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.script;
+
+import org.bitcoinj.script.ScriptError;
+import org.bitcoinj.script.ScriptException;
+import org.libdohj.names.Name;
+
+import java.util.Arrays;
+
+import static org.bitcoinj.script.ScriptOpCodes.*;
+
+/**
+ * <p>Decodes name operations straight from the bytes of an output script,
+ * following the same rules as {@link NameScript} but without parsing the
+ * script into chunks.</p>
+ *
+ * <p>The name, value and address script are reported as offsets into the
+ * script bytes rather than copied, and a decoder can be reused for any number
+ * of scripts, so scanning outputs allocates nothing. Scripts which are not
+ * name operations, by far the most common case, are rejected on their first
+ * byte. A decoder is not thread safe.</p>
+ */
+public class RawNameScript {
+    // Most arguments any name operation takes
+    private static final int MAX_ARGS = 3;
+
+    private final int[] argOffsets = new int[MAX_ARGS];
+    private final int[] argLengths = new int[MAX_ARGS];
+
+    private byte[] script;
+    private int op = OP_NOP;
+    private int addressOffset;
+
+    /**
+     * Decode the given script, replacing whatever was decoded before. The
+     * script is retained rather than copied, so must not be changed while
+     * the results are in use.
+     *
+     * @return true if the script is a valid name operation.
+     */
+    public boolean parse(final byte[] script) {
+        this.script = script;
+        this.op = OP_NOP;
+        if (script.length == 0) {
+            return false;
+        }
+        final int nameOp = script[0] & 0xff;
+        final int expectedArgs;
+        switch (nameOp) {
+            case NameScript.OP_NAME_NEW:
+                expectedArgs = 1;
+                break;
+            case NameScript.OP_NAME_FIRSTUPDATE:
+                expectedArgs = 3;
+                break;
+            case NameScript.OP_NAME_UPDATE:
+                expectedArgs = 2;
+                break;
+            default:
+                return false;
+        }
+
+        // Arguments are pushes up to the first DROP, 2DROP or NOP
+        int pc = 1;
+        int args = 0;
+        while (true) {
+            if (pc >= script.length) {
+                return false;
+            }
+            final int opcode = script[pc] & 0xff;
+            if (isDrop(opcode)) {
+                break;
+            }
+            if (opcode > OP_PUSHDATA4 || args == MAX_ARGS) {
+                return false;
+            }
+            pc = readPush(script, pc, args);
+            if (pc < 0) {
+                return false;
+            }
+            args++;
+        }
+        if (args != expectedArgs) {
+            return false;
+        }
+        // The address script follows any further DROP, 2DROP or NOP
+        while (pc < script.length && isDrop(script[pc] & 0xff)) {
+            pc++;
+        }
+        this.op = nameOp;
+        this.addressOffset = pc;
+        return true;
+    }
+
+    private static boolean isDrop(final int opcode) {
+        return opcode == OP_DROP || opcode == OP_2DROP || opcode == OP_NOP;
+    }
+
+    /**
+     * Read the push at the given offset as the given argument.
+     *
+     * @return the offset after the push, or -1 if the push runs past the
+     * end of the script.
+     */
+    private int readPush(final byte[] script, int pc, final int arg) {
+        final int opcode = script[pc++] & 0xff;
+        final long length;
+        if (opcode < OP_PUSHDATA1) {
+            length = opcode;
+        } else if (opcode == OP_PUSHDATA1) {
+            if (pc + 1 > script.length) {
+                return -1;
+            }
+            length = script[pc] & 0xff;
+            pc += 1;
+        } else if (opcode == OP_PUSHDATA2) {
+            if (pc + 2 > script.length) {
+                return -1;
+            }
+            length = (script[pc] & 0xff) | ((script[pc + 1] & 0xff) << 8);
+            pc += 2;
+        } else {
+            if (pc + 4 > script.length) {
+                return -1;
+            }
+            length = (script[pc] & 0xffL) | ((script[pc + 1] & 0xffL) << 8)
+                | ((script[pc + 2] & 0xffL) << 16) | ((script[pc + 3] & 0xffL) << 24);
+            pc += 4;
+        }
+        if (length > script.length - pc) {
+            return -1;
+        }
+        argOffsets[arg] = pc;
+        argLengths[arg] = (int) length;
+        return pc + (int) length;
+    }
+
+    public boolean isNameOp() {
+        return op != OP_NOP;
+    }
+
+    /**
+     * Get the name operation, one of {@link NameScript#OP_NAME_NEW},
+     * {@link NameScript#OP_NAME_FIRSTUPDATE} or
+     * {@link NameScript#OP_NAME_UPDATE}, or {@code OP_NOP} if the script is
+     * not a name operation.
+     */
+    public int getOp() {
+        return op;
+    }
+
+    public boolean isAnyUpdate() {
+        return op == NameScript.OP_NAME_FIRSTUPDATE || op == NameScript.OP_NAME_UPDATE;
+    }
+
+    /**
+     * Get the script last decoded, which the offsets refer to.
+     */
+    public byte[] getScript() {
+        return script;
+    }
+
+    public int getNameOffset() {
+        checkAnyUpdate();
+        return argOffsets[0];
+    }
+
+    public int getNameLength() {
+        checkAnyUpdate();
+        return argLengths[0];
+    }
+
+    public int getValueOffset() {
+        checkAnyUpdate();
+        return argOffsets[op == NameScript.OP_NAME_FIRSTUPDATE ? 2 : 1];
+    }
+
+    public int getValueLength() {
+        checkAnyUpdate();
+        return argLengths[op == NameScript.OP_NAME_FIRSTUPDATE ? 2 : 1];
+    }
+
+    /**
+     * Get the offset of the address script, which runs to the end of the
+     * script.
+     */
+    public int getAddressOffset() {
+        checkNameOp();
+        return addressOffset;
+    }
+
+    public int getAddressLength() {
+        checkNameOp();
+        return script.length - addressOffset;
+    }
+
+    /**
+     * Whether the name of this update equals the given name, read as
+     * ISO-8859-1 as by {@link org.libdohj.names.NameTransactionUtils}.
+     */
+    public boolean nameEquals(final String name) {
+        final int offset = getNameOffset();
+        final int length = getNameLength();
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != (script[offset + i] & 0xff)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the name of this update equals the given name.
+     */
+    public boolean nameEquals(final Name name) {
+        return name.contentEquals(script, getNameOffset(), getNameLength());
+    }
+
+    /**
+     * Copy out the name of this update.
+     */
+    public byte[] getName() {
+        return Arrays.copyOfRange(script, getNameOffset(), getNameOffset() + getNameLength());
+    }
+
+    /**
+     * Copy out the value of this update.
+     */
+    public byte[] getValue() {
+        return Arrays.copyOfRange(script, getValueOffset(), getValueOffset() + getValueLength());
+    }
+
+    /**
+     * Copy out the address script.
+     */
+    public byte[] getAddress() {
+        return Arrays.copyOfRange(script, getAddressOffset(), script.length);
+    }
+
+    private void checkNameOp() {
+        if (op == OP_NOP) {
+            throw new ScriptException(ScriptError.SCRIPT_ERR_DISABLED_OPCODE, "Not a name op");
+        }
+    }
+
+    private void checkAnyUpdate() {
+        if (!isAnyUpdate()) {
+            throw new ScriptException(ScriptError.SCRIPT_ERR_DISABLED_OPCODE, "Not an AnyUpdate op");
+        }
+    }
+}
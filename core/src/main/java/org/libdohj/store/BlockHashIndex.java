@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.store;
+
+import org.bitcoinj.base.Sha256Hash;
+
+/**
+ * <p>Open addressing index from block hash to record number, held in
+ * primitive arrays.</p>
+ *
+ * <p>Only the low 64 bits of each hash are kept in the index, so a match is
+ * confirmed against the full hash of the record, which the store provides.
+ * The low end of a block hash is used as the high end is mostly zeroes, due
+ * to proof of work. Not thread safe.</p>
+ */
+class BlockHashIndex {
+    /**
+     * Provides the full hash of a stored record.
+     */
+    interface RecordHashes {
+        Sha256Hash getHash(int record);
+    }
+
+    private final RecordHashes hashes;
+    private long[] keys;
+    // Record number plus one, with zero marking an empty slot
+    private int[] records;
+    private int mask;
+    private int size;
+
+    BlockHashIndex(final RecordHashes hashes, final int expectedSize) {
+        this.hashes = hashes;
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.records = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Key for a hash in the index: the last eight bytes of the hash, as a
+     * big endian long.
+     */
+    static long key(final Sha256Hash hash) {
+        final byte[] bytes = hash.getBytes();
+        long key = 0;
+        for (int i = Sha256Hash.LENGTH - 8; i < Sha256Hash.LENGTH; i++) {
+            key = (key << 8) | (bytes[i] & 0xffL);
+        }
+        return key;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Find the record for a block hash.
+     *
+     * @return the record number, or -1 if the hash is not indexed.
+     */
+    int get(final Sha256Hash hash) {
+        final long key = key(hash);
+        for (int slot = slot(key, mask); records[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                final int record = records[slot] - 1;
+                if (hashes.getHash(record).equals(hash)) {
+                    return record;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Add a record to the index. The caller must first check the hash is not
+     * already indexed.
+     */
+    void put(final long key, final int record) {
+        // Keep the index at most half full
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length << 1);
+        }
+        insert(key, record + 1, keys, records, mask);
+        size++;
+    }
+
+    private static int slot(final long key, final int mask) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static void insert(final long key, final int value, final long[] keys,
+                               final int[] values, final int mask) {
+        int slot = slot(key, mask);
+        while (values[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    private void resize(final int capacity) {
+        final long[] newKeys = new long[capacity];
+        final int[] newRecords = new int[capacity];
+        final int newMask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (records[i] != 0) {
+                insert(keys[i], records[i], newKeys, newRecords, newMask);
+            }
+        }
+        keys = newKeys;
+        records = newRecords;
+        mask = newMask;
+    }
+}
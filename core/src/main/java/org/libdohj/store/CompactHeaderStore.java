@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.store;
+
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.StoredBlock;
+import org.libdohj.params.AbstractDogecoinParams;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>An in-memory block store for Dogecoin headers, which packs each header
+ * into a fixed width record in off-heap memory rather than holding a
+ * {@link StoredBlock} and {@link AltcoinBlock} per header.</p>
+ *
+ * <p>Records, AuxPoW headers and the height index are laid out as in
+ * {@link MappedHeaderStore}, but held in direct buffers allocated as the
+ * store grows. Blocks are found by height on the best chain without walking
+ * the chain, see {@link #getByHeight(int)}. This class is thread safe.</p>
+ */
+public class CompactHeaderStore extends SegmentedHeaderStore<ByteBuffer> {
+    /**
+     * Create a store sized for the given number of headers. The store grows
+     * as needed beyond this.
+     */
+    public CompactHeaderStore(final AbstractDogecoinParams params, final int expectedHeaders) {
+        super(params);
+        indexRecords(expectedHeaders);
+    }
+
+    public CompactHeaderStore(final AbstractDogecoinParams params) {
+        this(params, 1024);
+    }
+
+    @Override
+    ByteBuffer newRecordSegment(final int index) {
+        return ByteBuffer.allocateDirect(RECORDS_PER_SEGMENT * RECORD_SIZE);
+    }
+
+    @Override
+    ByteBuffer newAuxPoWSegment(final int index) {
+        return ByteBuffer.allocateDirect(AUXPOW_SEGMENT_SIZE);
+    }
+
+    @Override
+    ByteBuffer newHeightSegment(final int index) {
+        return ByteBuffer.allocateDirect(HEIGHTS_PER_SEGMENT * 4);
+    }
+
+    @Override
+    public synchronized void close() {
+        release();
+    }
+}
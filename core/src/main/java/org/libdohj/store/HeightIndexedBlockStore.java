@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.store;
+
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.store.BlockStore;
+import org.bitcoinj.store.BlockStoreException;
+
+import javax.annotation.Nullable;
+
+/**
+ * A block store which can also look up blocks on the current best chain by
+ * height, without walking back from the chain head.
+ */
+public interface HeightIndexedBlockStore extends BlockStore {
+    /**
+     * Get the block at the given height on the chain ending at the current
+     * chain head.
+     *
+     * @return the block, or null if the height is above the chain head or the
+     * block is not in the store.
+     */
+    @Nullable
+    StoredBlock getByHeight(int height) throws BlockStoreException;
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.store;
+
+import org.bitcoinj.store.BlockStoreException;
+import org.libdohj.params.AbstractDogecoinParams;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>A persistent block store for Dogecoin headers, held in memory-mapped,
+ * append-only files in a directory.</p>
+ *
+ * <p>The header file holds a fixed width record per block: the block hash,
+ * the serialized 80 byte header, the height, the cumulative chain work and a
+ * pointer into the AuxPoW file, which holds the variable length AuxPoW
+ * headers. The height file maps each height on the best chain to its record,
+ * so height lookups never walk the chain, see {@link #getByHeight(int)}.</p>
+ *
+ * <p>On opening an existing store, only the hash index is rebuilt, from the
+ * hashes held in the records, so no headers are parsed or hashed and no blocks
+ * are replayed.</p>
+ *
+ * <p>Writes go straight to the mapped files. Records are written before the
+ * record count, and the height file before the chain head, so a store which
+ * was not closed cleanly is consistent up to its last chain head, although
+ * the operating system may not have written everything to disk unless
+ * {@link #flush()} was called. This class is thread safe.</p>
+ */
+public class MappedHeaderStore extends SegmentedHeaderStore<MappedByteBuffer> {
+    static final String HEADER_FILE = "headers.dat";
+    static final String AUXPOW_FILE = "auxpow.dat";
+    static final String HEIGHT_FILE = "heights.dat";
+
+    /** "DHDR", identifying the header file. */
+    private static final int FILE_MAGIC = 0x44484452;
+    private static final int FILE_VERSION = 1;
+
+    // Layout of the metadata at the start of the header file
+    private static final int META_MAGIC_OFFSET = 0;
+    private static final int META_VERSION_OFFSET = 4;
+    private static final int META_NETWORK_OFFSET = 8;
+    private static final int META_RECORD_COUNT_OFFSET = 12;
+    private static final int META_CHAIN_HEAD_OFFSET = 16;
+    private static final int META_AUXPOW_SIZE_OFFSET = 24;
+    private static final int META_SIZE = 64;
+
+    private final File directory;
+
+    private final RandomAccessFile headerFile;
+    private final RandomAccessFile auxPoWFile;
+    private final RandomAccessFile heightFile;
+    private final MappedByteBuffer metadata;
+
+    /**
+     * Open the store in the given directory, creating it if it does not
+     * exist.
+     *
+     * @throws BlockStoreException if the files cannot be opened, or belong to
+     * a different network.
+     */
+    public MappedHeaderStore(final AbstractDogecoinParams params, final File directory) throws BlockStoreException {
+        super(params);
+        this.directory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new BlockStoreException("Could not create block store directory " + directory);
+        }
+        try {
+            headerFile = new RandomAccessFile(new File(directory, HEADER_FILE), "rw");
+            auxPoWFile = new RandomAccessFile(new File(directory, AUXPOW_FILE), "rw");
+            heightFile = new RandomAccessFile(new File(directory, HEIGHT_FILE), "rw");
+            final boolean created = headerFile.length() == 0;
+            metadata = headerFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, META_SIZE);
+            if (created) {
+                metadata.putInt(META_MAGIC_OFFSET, FILE_MAGIC);
+                metadata.putInt(META_VERSION_OFFSET, FILE_VERSION);
+                metadata.putInt(META_NETWORK_OFFSET, params.getPacketMagic());
+                metadata.putInt(META_RECORD_COUNT_OFFSET, 0);
+                metadata.putInt(META_CHAIN_HEAD_OFFSET, -1);
+                metadata.putLong(META_AUXPOW_SIZE_OFFSET, 0);
+            } else {
+                checkMetadata();
+            }
+            load();
+        } catch (IOException e) {
+            closeFiles();
+            throw new BlockStoreException(e);
+        } catch (BlockStoreException e) {
+            closeFiles();
+            throw e;
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private void checkMetadata() throws BlockStoreException {
+        if (metadata.getInt(META_MAGIC_OFFSET) != FILE_MAGIC) {
+            throw new BlockStoreException(new File(directory, HEADER_FILE) + " is not a header file");
+        }
+        final int version = metadata.getInt(META_VERSION_OFFSET);
+        if (version != FILE_VERSION) {
+            throw new BlockStoreException("Unsupported header file version " + version);
+        }
+        if (metadata.getInt(META_NETWORK_OFFSET) != getParams().getPacketMagic()) {
+            throw new BlockStoreException("Header file in " + directory + " is for a different network");
+        }
+    }
+
+    /**
+     * Map the existing files, and rebuild the hash index from the records.
+     */
+    private void load() throws IOException {
+        recordCount = metadata.getInt(META_RECORD_COUNT_OFFSET);
+        chainHeadRecord = metadata.getInt(META_CHAIN_HEAD_OFFSET);
+        auxPoWSize = metadata.getLong(META_AUXPOW_SIZE_OFFSET);
+        loadSegments();
+        indexRecords(recordCount);
+    }
+
+    /**
+     * Record counts and the chain head are written after the data they refer
+     * to, so a store which was not closed cleanly is consistent up to them.
+     */
+    @Override
+    void writeMetadata() {
+        metadata.putLong(META_AUXPOW_SIZE_OFFSET, auxPoWSize);
+        metadata.putInt(META_RECORD_COUNT_OFFSET, recordCount);
+        metadata.putInt(META_CHAIN_HEAD_OFFSET, chainHeadRecord);
+    }
+
+    /**
+     * Write all changes to disk.
+     */
+    public synchronized void flush() throws BlockStoreException {
+        checkOpen();
+        for (MappedByteBuffer segment : recordSegments) {
+            segment.force();
+        }
+        for (MappedByteBuffer segment : auxPoWSegments) {
+            segment.force();
+        }
+        for (MappedByteBuffer segment : heightSegments) {
+            segment.force();
+        }
+        metadata.force();
+    }
+
+    /**
+     * Write all changes to disk and close the files. The mapped memory is
+     * released once it is garbage collected.
+     */
+    @Override
+    public synchronized void close() throws BlockStoreException {
+        if (closed) {
+            return;
+        }
+        flush();
+        release();
+        closeFiles();
+    }
+
+    private void closeFiles() {
+        for (RandomAccessFile file : new RandomAccessFile[] { headerFile, auxPoWFile, heightFile }) {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    // Nothing more can be done with the file
+                }
+            }
+        }
+    }
+
+    @Override
+    MappedByteBuffer newRecordSegment(final int index) throws IOException {
+        final long position = META_SIZE + (long) index * RECORDS_PER_SEGMENT * RECORD_SIZE;
+        return headerFile.getChannel().map(FileChannel.MapMode.READ_WRITE, position,
+            (long) RECORDS_PER_SEGMENT * RECORD_SIZE);
+    }
+
+    @Override
+    MappedByteBuffer newAuxPoWSegment(final int index) throws IOException {
+        final long position = (long) index * AUXPOW_SEGMENT_SIZE;
+        return auxPoWFile.getChannel().map(FileChannel.MapMode.READ_WRITE, position, AUXPOW_SEGMENT_SIZE);
+    }
+
+    @Override
+    MappedByteBuffer newHeightSegment(final int index) throws IOException {
+        final long position = (long) index * HEIGHTS_PER_SEGMENT * 4;
+        return heightFile.getChannel().map(FileChannel.MapMode.READ_WRITE, position, (long) HEIGHTS_PER_SEGMENT * 4);
+    }
+}
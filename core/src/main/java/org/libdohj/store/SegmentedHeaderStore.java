@@ -0,0 +1,472 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.store;
+
+import org.bitcoinj.base.Network;
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.store.BlockStoreException;
+import org.libdohj.core.ChainWork;
+import org.libdohj.params.AbstractDogecoinParams;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A block store for Dogecoin headers which packs each header into a fixed
+ * width record, held in segments of {@link ByteBuffer}s. Subclasses decide
+ * where the segments come from, such as off-heap memory or memory-mapped
+ * files.</p>
+ *
+ * <p>Each record holds the block hash, the serialized 80 byte header, the
+ * height, the cumulative chain work and a pointer to the AuxPoW header, if
+ * any. AuxPoW headers vary in size and so are appended to a separate region,
+ * as a length followed by the serialized header. Blocks are found by hash
+ * through an open addressing index of primitive arrays, rebuilt from the
+ * hashes in the records, and by height on the best chain through a region
+ * mapping each height to its record.</p>
+ *
+ * <p>Blocks are rebuilt from their record on each lookup, so callers should
+ * not expect the same instances back. Only {@link AltcoinBlock} headers can be
+ * stored.</p>
+ */
+abstract class SegmentedHeaderStore<S extends ByteBuffer> implements HeightIndexedBlockStore {
+    // Layout of each record
+    static final int HASH_OFFSET = 0;
+    static final int HEADER_OFFSET = HASH_OFFSET + Sha256Hash.LENGTH;
+    static final int HEIGHT_OFFSET = HEADER_OFFSET + Block.HEADER_SIZE;
+    static final int CHAIN_WORK_OFFSET = HEIGHT_OFFSET + 4;
+    static final int AUXPOW_OFFSET = CHAIN_WORK_OFFSET + ChainWork.SERIALIZED_LENGTH;
+    /** Size of each record in bytes. */
+    static final int RECORD_SIZE = AUXPOW_OFFSET + 8;
+
+    /** Regions are held in segments, so they can grow without copying or remapping what is already held. */
+    static final int RECORDS_PER_SEGMENT_BITS = 16;
+    static final int RECORDS_PER_SEGMENT = 1 << RECORDS_PER_SEGMENT_BITS;
+    static final int HEIGHTS_PER_SEGMENT_BITS = 20;
+    static final int HEIGHTS_PER_SEGMENT = 1 << HEIGHTS_PER_SEGMENT_BITS;
+    static final int AUXPOW_SEGMENT_SIZE = 16 * 1024 * 1024;
+    static final long NO_AUXPOW = -1L;
+
+    private final NetworkParameters params;
+    private final Network network;
+    private final byte[] headerScratch = new byte[Block.HEADER_SIZE];
+    private final ChainWork chainWork = new ChainWork();
+
+    final List<S> recordSegments = new ArrayList<>();
+    final List<S> auxPoWSegments = new ArrayList<>();
+    final List<S> heightSegments = new ArrayList<>();
+
+    int recordCount;
+    int chainHeadRecord = -1;
+    int chainHeadHeight = -1;
+    long auxPoWSize;
+    private BlockHashIndex hashIndex;
+    boolean closed;
+
+    SegmentedHeaderStore(final AbstractDogecoinParams params) {
+        this.params = params;
+        this.network = params.network();
+    }
+
+    /**
+     * Get a new, zeroed segment of the record region, of
+     * {@code RECORDS_PER_SEGMENT * RECORD_SIZE} bytes.
+     *
+     * @param index index of the segment within the region.
+     */
+    abstract S newRecordSegment(int index) throws IOException;
+
+    /**
+     * Get a new segment of the AuxPoW region, of {@link #AUXPOW_SEGMENT_SIZE}
+     * bytes.
+     */
+    abstract S newAuxPoWSegment(int index) throws IOException;
+
+    /**
+     * Get a new, zeroed segment of the height region, of
+     * {@code HEIGHTS_PER_SEGMENT * 4} bytes.
+     */
+    abstract S newHeightSegment(int index) throws IOException;
+
+    /**
+     * Called after records are appended or the chain head moves, once the
+     * data they refer to has been written. Does nothing by default.
+     */
+    void writeMetadata() {
+    }
+
+    /**
+     * Get segments covering the record count, AuxPoW size and chain head
+     * already set, such as when opening existing files.
+     */
+    void loadSegments() throws IOException {
+        while ((long) recordSegments.size() * RECORDS_PER_SEGMENT < recordCount) {
+            recordSegments.add(newRecordSegment(recordSegments.size()));
+        }
+        while ((long) auxPoWSegments.size() * AUXPOW_SEGMENT_SIZE < auxPoWSize) {
+            auxPoWSegments.add(newAuxPoWSegment(auxPoWSegments.size()));
+        }
+        if (chainHeadRecord >= 0) {
+            chainHeadHeight = recordSegment(chainHeadRecord).getInt(recordOffset(chainHeadRecord) + HEIGHT_OFFSET);
+            ensureHeightSegments(chainHeadHeight);
+        }
+    }
+
+    /**
+     * Build the hash index from the hashes held in the records, so no
+     * headers are parsed or hashed.
+     */
+    void indexRecords(final int expectedHeaders) {
+        hashIndex = new BlockHashIndex(this::getRecordHash, Math.max(expectedHeaders, recordCount));
+        for (int record = 0; record < recordCount; record++) {
+            // The index key is the last eight bytes of the hash, big endian
+            hashIndex.put(recordSegment(record).getLong(recordOffset(record) + HASH_OFFSET
+                + Sha256Hash.LENGTH - 8), record);
+        }
+    }
+
+    public NetworkParameters getParams() {
+        return params;
+    }
+
+    /**
+     * Get the number of blocks held.
+     */
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void put(final StoredBlock block) throws BlockStoreException {
+        checkOpen();
+        if (!(block.getHeader() instanceof AltcoinBlock)) {
+            throw new BlockStoreException("Only AltcoinBlock headers can be stored, got "
+                + block.getHeader().getClass().getName());
+        }
+        try {
+            chainWork.set(block.getChainWork());
+        } catch (IllegalArgumentException e) {
+            throw new BlockStoreException(e);
+        }
+        writeRecord((AltcoinBlock) block.getHeader(), block.getHeight(), chainWork);
+    }
+
+    /**
+     * Store a header which follows a block already in the store, taking its
+     * height and chain work from the previous block's record. Unlike
+     * {@link #put(StoredBlock)}, no {@link StoredBlock} or {@link BigInteger}
+     * is needed.
+     *
+     * @return the height of the header.
+     * @throws BlockStoreException if the previous block is not in the store.
+     */
+    public synchronized int putNext(final AltcoinBlock header) throws BlockStoreException {
+        checkOpen();
+        final int previous = hashIndex.get(header.getPrevBlockHash());
+        if (previous < 0) {
+            throw new BlockStoreException("Previous block " + header.getPrevBlockHash()
+                + " of " + header.getHash() + " is not in the store");
+        }
+        final ByteBuffer segment = recordSegment(previous);
+        final int offset = recordOffset(previous);
+        final int height = segment.getInt(offset + HEIGHT_OFFSET) + 1;
+        try {
+            chainWork.read(segment, offset + CHAIN_WORK_OFFSET).addBlock(header.getDifficultyTarget());
+        } catch (IllegalArgumentException e) {
+            throw new BlockStoreException(e);
+        }
+        writeRecord(header, height, chainWork);
+        return height;
+    }
+
+    /**
+     * Get the chain work of a stored block.
+     *
+     * @param result chain work to set.
+     * @return the result, or null if the block is not stored.
+     */
+    @Nullable
+    public synchronized ChainWork getChainWork(final Sha256Hash hash, final ChainWork result)
+            throws BlockStoreException {
+        checkOpen();
+        final int record = hashIndex.get(hash);
+        if (record < 0) {
+            return null;
+        }
+        return result.read(recordSegment(record), recordOffset(record) + CHAIN_WORK_OFFSET);
+    }
+
+    /**
+     * Compare the chain work of two stored blocks, directly from their
+     * records.
+     *
+     * @return a negative number, zero or a positive number as the first block
+     * has less, equal or more chain work than the second.
+     * @throws BlockStoreException if either block is not in the store.
+     */
+    public synchronized int compareChainWork(final Sha256Hash a, final Sha256Hash b) throws BlockStoreException {
+        checkOpen();
+        final int recordA = hashIndex.get(a);
+        final int recordB = hashIndex.get(b);
+        if (recordA < 0 || recordB < 0) {
+            throw new BlockStoreException("Block " + (recordA < 0 ? a : b) + " is not in the store");
+        }
+        return ChainWork.compare(recordSegment(recordA), recordOffset(recordA) + CHAIN_WORK_OFFSET,
+            recordSegment(recordB), recordOffset(recordB) + CHAIN_WORK_OFFSET);
+    }
+
+    private void writeRecord(final AltcoinBlock header, final int height, final ChainWork work)
+            throws BlockStoreException {
+        final Sha256Hash hash = header.getHash();
+        try {
+            int record = hashIndex.get(hash);
+            final boolean append = record < 0;
+            if (append) {
+                // Only counted once written
+                record = recordCount;
+                if ((record >>> RECORDS_PER_SEGMENT_BITS) == recordSegments.size()) {
+                    recordSegments.add(newRecordSegment(recordSegments.size()));
+                }
+            }
+            final ByteBuffer segment = recordSegment(record);
+            final int offset = recordOffset(record);
+            // Chain work first, so a value which does not fit leaves the store unchanged
+            try {
+                work.write(segment, offset + CHAIN_WORK_OFFSET);
+            } catch (IllegalStateException e) {
+                throw new BlockStoreException(e);
+            }
+            final ByteBuffer auxPoW = header.getAuxPoWBytes();
+            long auxPoWPosition = append ? NO_AUXPOW : segment.getLong(offset + AUXPOW_OFFSET);
+            if (auxPoW != null && auxPoWPosition == NO_AUXPOW) {
+                auxPoWPosition = appendAuxPoW(auxPoW);
+            }
+            header.writeHeader(headerScratch, 0);
+            final ByteBuffer target = segment.duplicate();
+            target.position(offset + HASH_OFFSET);
+            target.put(hash.getBytes());
+            target.position(offset + HEADER_OFFSET);
+            target.put(headerScratch);
+            segment.putInt(offset + HEIGHT_OFFSET, height);
+            segment.putLong(offset + AUXPOW_OFFSET, auxPoWPosition);
+            if (append) {
+                recordCount++;
+                hashIndex.put(BlockHashIndex.key(hash), record);
+            }
+            writeMetadata();
+        } catch (IOException e) {
+            throw new BlockStoreException(e);
+        }
+    }
+
+    @Override
+    @Nullable
+    public synchronized StoredBlock get(final Sha256Hash hash) throws BlockStoreException {
+        checkOpen();
+        final int record = hashIndex.get(hash);
+        return record < 0 ? null : readRecord(record);
+    }
+
+    @Override
+    @Nullable
+    public synchronized StoredBlock getByHeight(final int height) throws BlockStoreException {
+        checkOpen();
+        if (height < 0 || height > chainHeadHeight) {
+            return null;
+        }
+        final int record = getHeightRecord(height);
+        return record < 0 ? null : readRecord(record);
+    }
+
+    @Override
+    @Nullable
+    public synchronized StoredBlock getChainHead() throws BlockStoreException {
+        checkOpen();
+        return chainHeadRecord < 0 ? null : readRecord(chainHeadRecord);
+    }
+
+    @Override
+    public synchronized void setChainHead(final StoredBlock chainHead) throws BlockStoreException {
+        checkOpen();
+        final Sha256Hash hash = chainHead.getHeader().getHash();
+        if (hashIndex.get(hash) < 0) {
+            put(chainHead);
+        }
+        final int record = hashIndex.get(hash);
+        final int height = chainHead.getHeight();
+        try {
+            ensureHeightSegments(height);
+        } catch (IOException e) {
+            throw new BlockStoreException(e);
+        }
+        for (int i = height + 1; i <= chainHeadHeight; i++) {
+            setHeightRecord(i, -1);
+        }
+        updateHeights(record, height);
+        chainHeadRecord = record;
+        chainHeadHeight = height;
+        writeMetadata();
+    }
+
+    /**
+     * Point the height region at the chain ending with the given record,
+     * walking back only as far as the point where it already agrees.
+     */
+    private void updateHeights(final int headRecord, final int headHeight) {
+        int record = headRecord;
+        int height = headHeight;
+        while (getHeightRecord(height) != record) {
+            setHeightRecord(height, record);
+            if (height == 0) {
+                return;
+            }
+            record = hashIndex.get(getRecordPrevBlockHash(record));
+            height--;
+            if (record < 0) {
+                // The rest of the chain is not in this store, such as below a
+                // checkpoint the store was started from
+                for (; height >= 0 && getHeightRecord(height) >= 0; height--) {
+                    setHeightRecord(height, -1);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drop all segments, after which the store cannot be used.
+     */
+    void release() {
+        closed = true;
+        recordSegments.clear();
+        auxPoWSegments.clear();
+        heightSegments.clear();
+        hashIndex = null;
+    }
+
+    void checkOpen() throws BlockStoreException {
+        if (closed) {
+            throw new BlockStoreException("Block store is closed");
+        }
+    }
+
+    private void ensureHeightSegments(final int height) throws IOException {
+        while ((long) heightSegments.size() * HEIGHTS_PER_SEGMENT <= height) {
+            heightSegments.add(newHeightSegment(heightSegments.size()));
+        }
+    }
+
+    private ByteBuffer recordSegment(final int record) {
+        return recordSegments.get(record >>> RECORDS_PER_SEGMENT_BITS);
+    }
+
+    private static int recordOffset(final int record) {
+        return (record & (RECORDS_PER_SEGMENT - 1)) * RECORD_SIZE;
+    }
+
+    /**
+     * Get the record of the block at the given height on the best chain.
+     *
+     * @return the record number, or -1 if there is none.
+     */
+    private int getHeightRecord(final int height) {
+        // Stored as the record number plus one, so the zeroes of a new
+        // segment read as no record
+        return heightSegments.get(height >>> HEIGHTS_PER_SEGMENT_BITS)
+            .getInt((height & (HEIGHTS_PER_SEGMENT - 1)) * 4) - 1;
+    }
+
+    private void setHeightRecord(final int height, final int record) {
+        heightSegments.get(height >>> HEIGHTS_PER_SEGMENT_BITS)
+            .putInt((height & (HEIGHTS_PER_SEGMENT - 1)) * 4, record + 1);
+    }
+
+    private Sha256Hash getRecordHash(final int record) {
+        final ByteBuffer source = recordSegment(record).duplicate();
+        source.position(recordOffset(record) + HASH_OFFSET);
+        final byte[] bytes = new byte[Sha256Hash.LENGTH];
+        source.get(bytes);
+        return Sha256Hash.wrap(bytes);
+    }
+
+    private Sha256Hash getRecordPrevBlockHash(final int record) {
+        final ByteBuffer source = recordSegment(record).duplicate();
+        source.position(recordOffset(record) + HEADER_OFFSET + 4);
+        final byte[] bytes = new byte[Sha256Hash.LENGTH];
+        source.get(bytes);
+        return Sha256Hash.wrapReversed(bytes);
+    }
+
+    /**
+     * Append an AuxPoW header to the AuxPoW region, as a length followed by
+     * the serialized header, never spanning two segments.
+     *
+     * @return the position of the AuxPoW header within the region.
+     */
+    private long appendAuxPoW(final ByteBuffer auxPoW) throws BlockStoreException, IOException {
+        final int length = auxPoW.remaining();
+        final int required = 4 + length;
+        if (required > AUXPOW_SEGMENT_SIZE) {
+            throw new BlockStoreException("AuxPoW header of " + length + " bytes is too large to store");
+        }
+        int segmentOffset = (int) (auxPoWSize % AUXPOW_SEGMENT_SIZE);
+        if (segmentOffset + required > AUXPOW_SEGMENT_SIZE) {
+            auxPoWSize += AUXPOW_SEGMENT_SIZE - segmentOffset;
+            segmentOffset = 0;
+        }
+        while ((long) auxPoWSegments.size() * AUXPOW_SEGMENT_SIZE < auxPoWSize + required) {
+            auxPoWSegments.add(newAuxPoWSegment(auxPoWSegments.size()));
+        }
+        final long position = auxPoWSize;
+        final ByteBuffer target = auxPoWSegments.get((int) (position / AUXPOW_SEGMENT_SIZE)).duplicate();
+        target.position(segmentOffset);
+        target.putInt(length);
+        target.put(auxPoW.duplicate());
+        auxPoWSize += required;
+        return position;
+    }
+
+    private ByteBuffer readAuxPoW(final long position) {
+        final ByteBuffer segment = auxPoWSegments.get((int) (position / AUXPOW_SEGMENT_SIZE)).duplicate();
+        final int segmentOffset = (int) (position % AUXPOW_SEGMENT_SIZE);
+        final int length = segment.getInt(segmentOffset);
+        segment.limit(segmentOffset + 4 + length);
+        segment.position(segmentOffset + 4);
+        return segment.slice().asReadOnlyBuffer();
+    }
+
+    private StoredBlock readRecord(final int record) {
+        final ByteBuffer segment = recordSegment(record).duplicate();
+        final int offset = recordOffset(record);
+        segment.position(offset + HEADER_OFFSET);
+        final AltcoinBlock header = AltcoinBlock.readHeader(network, segment);
+        header.setHash(getRecordHash(record));
+        final long auxPoWPosition = segment.getLong(offset + AUXPOW_OFFSET);
+        if (auxPoWPosition != NO_AUXPOW) {
+            header.setAuxPoWBytes(readAuxPoW(auxPoWPosition));
+        }
+        return new StoredBlock(header, chainWork.read(segment, offset + CHAIN_WORK_OFFSET).toBigInteger(),
+            segment.getInt(offset + HEIGHT_OFFSET));
+    }
+}
@@ -15,13 +15,19 @@
  */
 package org.bitcoinj.core;
 
+import org.bitcoinj.base.Sha256Hash;
 import org.junit.Before;
 import org.junit.Test;
 import org.libdohj.params.DogecoinMainNetParams;
 
 import java.util.BitSet;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class AltcoinBlockTest {
     private static final NetworkParameters params = DogecoinMainNetParams.get();
@@ -61,4 +67,88 @@ public class AltcoinBlockTest {
         expected.set(4);
         assertEquals(block.getVersionFlags(), expected);
     }
+
+    /**
+     * Check the block and Scrypt hashes are calculated from the header, and
+     * recalculated when the header changes.
+     */
+    @Test
+    public void shouldCacheAndInvalidateHashes() throws Exception {
+        final Sha256Hash expectedHash
+            = Sha256Hash.wrap("82bc68038f6034c0596b6e313729793a887fded6e92a31fbdf70863f89d9bea2");
+        final Sha256Hash expectedScryptHash
+            = Sha256Hash.wrap("0000064605033107c224334408415b667b7a46b09d6442466dbfd8cfde76cd7d");
+        byte[] payload = Util.getBytes(getClass().getResourceAsStream("dogecoin_block1.bin"));
+        final AltcoinBlock block = (AltcoinBlock) params.getDefaultSerializer().makeBlock(java.nio.ByteBuffer.wrap(payload));
+
+        assertEquals(expectedHash, block.getHash());
+        assertEquals(expectedScryptHash, block.getScryptHash());
+        assertSame(block.getScryptHash(), block.getScryptHash());
+
+        final long nonce = block.getNonce();
+        block.setNonce(nonce + 1);
+        assertNotEquals(expectedHash, block.getHash());
+        assertNotEquals(expectedScryptHash, block.getScryptHash());
+
+        block.setNonce(nonce);
+        assertEquals(expectedHash, block.getHash());
+        assertEquals(expectedScryptHash, block.getScryptHash());
+    }
+
+    /**
+     * Check blocks serialize back to the bytes they were read from, with and
+     * without an AuxPoW header.
+     */
+    @Test
+    public void shouldSerializeBlocks() throws Exception {
+        for (String name : new String[] { "dogecoin_block1.bin", "dogecoin_block371337.bin" }) {
+            final byte[] payload = Util.getBytes(getClass().getResourceAsStream(name));
+            final AltcoinBlock block = (AltcoinBlock) params.getDefaultSerializer()
+                .makeBlock(java.nio.ByteBuffer.wrap(payload));
+            assertEquals(name, payload.length, block.messageSize());
+            assertArrayEquals(name, payload, block.bitcoinSerialize());
+
+            final java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocate(payload.length);
+            block.write(buf);
+            assertFalse(name, buf.hasRemaining());
+            assertArrayEquals(name, payload, buf.array());
+
+            // A header alone serializes to its 80 bytes
+            final AltcoinBlock header = AltcoinBlock.readHeader(params.network(), java.nio.ByteBuffer.wrap(payload));
+            assertArrayEquals(name, java.util.Arrays.copyOf(payload, Block.HEADER_SIZE), header.bitcoinSerialize());
+        }
+    }
+
+    /**
+     * Check transaction IDs hashed while parsing match each transaction's
+     * ID, and are dropped when a transaction is added.
+     */
+    @Test
+    public void shouldHashTransactionIdsWhileParsing() throws Exception {
+        for (String name : new String[] { "dogecoin_block1.bin", "dogecoin_block250000.bin",
+                "dogecoin_block371337.bin", "dogecoin_block748634.bin", "dogecoin_block894863.bin" }) {
+            final AltcoinBlock block = (AltcoinBlock) params.getDefaultSerializer().makeBlock(
+                java.nio.ByteBuffer.wrap(Util.getBytes(getClass().getResourceAsStream(name))));
+            final byte[] ids = block.getTransactionIds();
+            assertEquals(name, block.getTransactions().size() * Sha256Hash.LENGTH, ids.length);
+            for (int i = 0; i < block.getTransactions().size(); i++) {
+                assertEquals(name + " transaction " + i, block.getTransactions().get(i).getTxId(),
+                    Sha256Hash.wrapReversed(java.util.Arrays.copyOfRange(ids,
+                        i * Sha256Hash.LENGTH, (i + 1) * Sha256Hash.LENGTH)));
+            }
+            assertEquals(name, block.getMerkleRoot(), block.calculateMerkleRoot());
+            // The tree is hashed in a copy, so the IDs can be used again
+            assertEquals(name, block.getMerkleRoot(), block.calculateMerkleRoot());
+        }
+
+        final AltcoinBlock block = (AltcoinBlock) params.getDefaultSerializer().makeBlock(
+            java.nio.ByteBuffer.wrap(Util.getBytes(getClass().getResourceAsStream("dogecoin_block371337.bin"))));
+        final AltcoinBlock block1 = (AltcoinBlock) params.getDefaultSerializer().makeBlock(
+            java.nio.ByteBuffer.wrap(Util.getBytes(getClass().getResourceAsStream("dogecoin_block1.bin"))));
+        block.addTransaction(block1.getTransactions().get(0));
+        assertNull(block.getTransactionIds());
+        assertEquals(org.libdohj.core.MerkleTreeHasher.getDefault().calculateRoot(block.getTransactions()),
+            block.calculateMerkleRoot());
+        assertNotEquals(block.getMerkleRoot(), block.calculateMerkleRoot());
+    }
 }
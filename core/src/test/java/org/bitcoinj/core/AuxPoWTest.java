@@ -51,6 +51,58 @@ public class AuxPoWTest {
         assertEquals(expected, auxpow.getParentBlockHeader().getMerkleRoot());
     }
 
+    /**
+     * Read the AuxPoW header from Dogecoin block #403,931 lazily, and check
+     * that it serializes back to the original bytes.
+     */
+    @Test
+    public void parseAuxPoWHeaderLazily() throws Exception {
+        byte[] auxpowAsBytes = getBytes(getClass().getResourceAsStream("auxpow_header.bin"));
+        AuxPoW auxpow = AuxPoW.read(org.bitcoinj.base.BitcoinNetwork.MAINNET, java.nio.ByteBuffer.wrap(auxpowAsBytes));
+
+        assertArrayEquals(auxpowAsBytes, auxpow.bitcoinSerialize());
+        assertEquals(Sha256Hash.wrap("a22a9b01671d639fa6389f62ecf8ce69204c8ed41d5f1a745e0c5ba7116d5b4c"),
+            auxpow.getParentBlockHeader().getHash());
+        assertEquals(Sha256Hash.wrap("f29cd14243ed542d9a0b495efcb9feca1b208bb5b717dc5ac04f068d2fef595a"),
+            auxpow.getParentBlockHeader().getMerkleRoot());
+        assertEquals(Sha256Hash.wrap("be079078869399faccaa764c10e9df6e9981701759ad18e13724d9ca58831348"),
+            auxpow.getCoinbaseBranch().getHashes().get(0));
+        assertEquals(3, auxpow.getCoinbaseBranch().size());
+        assertEquals(6, auxpow.getChainMerkleBranch().size());
+        assertEquals(Sha256Hash.wrap("089b911f5e471c0e1800f3384281ebec5b372fbb6f358790a92747ade271ccdf"),
+            auxpow.getCoinbase().getTxId());
+        assertArrayEquals(auxpowAsBytes, auxpow.bitcoinSerialize());
+    }
+
+    /**
+     * Serialize the AuxPoW header from Dogecoin block #403,931 from its
+     * decoded components, once it no longer holds the bytes it was read from.
+     */
+    @Test
+    public void serializeChangedAuxPoWHeader() throws Exception {
+        byte[] auxpowAsBytes = getBytes(getClass().getResourceAsStream("auxpow_header.bin"));
+        AuxPoW auxpow = AuxPoW.read(org.bitcoinj.base.BitcoinNetwork.MAINNET, java.nio.ByteBuffer.wrap(auxpowAsBytes));
+        assertEquals(auxpowAsBytes.length, auxpow.messageSize());
+
+        // Replacing a component drops the retained bytes
+        auxpow.setHashBlock(auxpow.getHashBlock());
+        assertEquals(auxpowAsBytes.length, auxpow.messageSize());
+        assertArrayEquals(auxpowAsBytes, auxpow.bitcoinSerialize());
+
+        // Serialize into a larger, reused buffer
+        final java.nio.ByteBuffer buf = java.nio.ByteBuffer.allocateDirect(auxpowAsBytes.length + 16);
+        buf.position(8);
+        auxpow.write(buf);
+        assertEquals(8 + auxpowAsBytes.length, buf.position());
+        final byte[] written = new byte[auxpowAsBytes.length];
+        buf.position(8);
+        buf.get(written);
+        assertArrayEquals(auxpowAsBytes, written);
+
+        assertThrows(java.nio.BufferOverflowException.class,
+            () -> auxpow.write(java.nio.ByteBuffer.allocate(auxpowAsBytes.length - 1)));
+    }
+
     /**
      * Test serializing the AuxPoW header from Dogecoin block #403,931.
      */
@@ -215,6 +267,53 @@ public class AuxPoWTest {
         });
     }
 
+    /**
+     * Check the single pass scan for merged mining headers finds the first
+     * header, and counts any duplicates.
+     */
+    @Test
+    public void shouldScanForMergedMiningHeaders() {
+        final byte[] script = new byte[48];
+        System.arraycopy(AuxPoW.MERGED_MINING_HEADER, 0, script, 5, AuxPoW.MERGED_MINING_HEADER.length);
+        AuxPoW.MergedMiningHeaderScan scan = AuxPoW.MergedMiningHeaderScan.scan(script);
+        assertEquals(5, scan.headerPosition);
+        assertEquals(1, scan.headerCount);
+        assertEquals(9, scan.getChainMerkleRootOffset());
+        assertEquals(41, scan.getTreeSizeOffset());
+        assertEquals(45, scan.getNonceOffset());
+
+        System.arraycopy(AuxPoW.MERGED_MINING_HEADER, 0, script, 44, AuxPoW.MERGED_MINING_HEADER.length);
+        scan = AuxPoW.MergedMiningHeaderScan.scan(script);
+        assertEquals(5, scan.headerPosition);
+        assertEquals(2, scan.headerCount);
+
+        scan = AuxPoW.MergedMiningHeaderScan.scan(new byte[3]);
+        assertEquals(-1, scan.headerPosition);
+        assertEquals(0, scan.headerCount);
+    }
+
+    /**
+     * Check the chain merkle root, tree size and nonce offsets against the
+     * coinbase of Dogecoin block #894,863, which has a chain merkle tree of
+     * 64 leaves.
+     */
+    @Test
+    public void shouldLocateTreeSizeAndNonceInCoinbase() throws Exception {
+        byte[] blockAsBytes = getBytes(getClass().getResourceAsStream("dogecoin_block894863.bin"));
+        AltcoinBlock block = (AltcoinBlock) params.getDefaultSerializer().makeBlock(java.nio.ByteBuffer.wrap(blockAsBytes));
+        AuxPoW auxpow = block.getAuxPoW();
+        final byte[] script = auxpow.getCoinbase().getInput(0).getScriptBytes();
+        AuxPoW.MergedMiningHeaderScan scan = AuxPoW.MergedMiningHeaderScan.scan(script);
+
+        assertEquals(19, scan.headerPosition);
+        assertEquals(23, scan.getChainMerkleRootOffset());
+        assertEquals(55, scan.getTreeSizeOffset());
+        assertEquals(59, scan.getNonceOffset());
+        assertEquals(1L << auxpow.getChainMerkleBranch().size(),
+            org.bitcoinj.base.internal.ByteUtils.readUint32(script, scan.getTreeSizeOffset()));
+        assertEquals(0x9f909ff0L, org.bitcoinj.base.internal.ByteUtils.readUint32(script, scan.getNonceOffset()));
+    }
+
     /**
      * Catch the case that more than one merged mine header is present in the
      * coinbase transaction (this is considered an attempt to confuse the parser).
@@ -5,12 +5,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.Ignore;
 import org.libdohj.core.AltcoinSerializer;
+import org.libdohj.core.Uint256;
 import org.libdohj.params.DogecoinMainNetParams;
 
 import java.io.IOException;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -174,4 +176,19 @@ public class DogecoinBlockTest {
         final AltcoinBlock block = (AltcoinBlock)serializer.makeBlock(java.nio.ByteBuffer.wrap(payload));
         assertTrue(block.checkProofOfWork(true));
     }
+
+    @Test
+    public void shouldCheckParentScryptHashAgainstTarget() throws IOException {
+        AltcoinSerializer serializer = (AltcoinSerializer)params.getDefaultSerializer();
+        for (String name : new String[] { "dogecoin_block371337.bin", "dogecoin_block748634.bin",
+                "dogecoin_block894863.bin" }) {
+            byte[] payload = Util.getBytes(getClass().getResourceAsStream(name));
+            final AltcoinBlock block = (AltcoinBlock)serializer.makeBlock(java.nio.ByteBuffer.wrap(payload));
+            final AuxPoW auxpow = block.getAuxPoW();
+            // The block's own hash does not meet the target, only the parent's Scrypt hash does
+            assertFalse(name, Uint256.checkProofOfWork(block.getHash(), block.getDifficultyTarget()));
+            assertTrue(name, auxpow.checkProofOfWork(block.getDifficultyTarget(), true));
+            assertFalse(name, auxpow.checkProofOfWork(0x03000001L, false));
+        }
+    }
 }
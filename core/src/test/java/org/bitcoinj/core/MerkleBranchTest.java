@@ -46,14 +46,43 @@ public class MerkleBranchTest {
         assertArrayEquals(expected, actual);
     }
 
+    /**
+     * Read the coinbase merkle branch from Dogecoin block #403,931 and
+     * serialize it back to the same bytes.
+     */
+    @Test
+    public void roundTripMerkleBranch() throws Exception {
+        byte[] expected = getBytes(getClass().getResourceAsStream("auxpow_merkle_branch.bin"));
+        MerkleBranch branch = MerkleBranch.read(org.bitcoinj.base.BitcoinNetwork.MAINNET,
+            java.nio.ByteBuffer.wrap(expected));
+
+        assertEquals(expected.length, branch.messageSize());
+        assertArrayEquals(expected, branch.bitcoinSerialize());
+    }
+
+    /**
+     * Calculate the parent block merkle root from the coinbase branch of
+     * Dogecoin block #403,931.
+     */
+    @Test
+    public void calculateCoinbaseRoot() throws Exception {
+        byte[] branchAsBytes = getBytes(getClass().getResourceAsStream("auxpow_merkle_branch.bin"));
+        MerkleBranch branch = MerkleBranch.read(org.bitcoinj.base.BitcoinNetwork.MAINNET,
+            java.nio.ByteBuffer.wrap(branchAsBytes));
+        Sha256Hash txId = Sha256Hash.wrap("089b911f5e471c0e1800f3384281ebec5b372fbb6f358790a92747ade271ccdf");
+        Sha256Hash expected = Sha256Hash.wrap("f29cd14243ed542d9a0b495efcb9feca1b208bb5b717dc5ac04f068d2fef595a");
+
+        assertEquals(expected, branch.calculateMerkleRoot(txId));
+    }
+
     /**
      * Calculate the AuxPoW merkle branch root from Dogecoin block #403,931.
      */
     @Test
-    @Ignore("Temporarily disabled for v0.17 release - needs mock data adjustment")
     public void calculateRootBranch() throws Exception {
         byte[] branchAsBytes = getBytes(getClass().getResourceAsStream("auxpow_merkle_branch2.bin"));
-        MerkleBranch branch = new MerkleBranch(org.bitcoinj.base.BitcoinNetwork.MAINNET, null, branchAsBytes, 0);
+        MerkleBranch branch = MerkleBranch.read(org.bitcoinj.base.BitcoinNetwork.MAINNET,
+            java.nio.ByteBuffer.wrap(branchAsBytes));
         Sha256Hash txId = Sha256Hash.wrap("0c836b86991631d34a8a68054e2f62db919b39d1ee43c27ab3344d6aa82fa609");
         Sha256Hash expected = Sha256Hash.wrap("ce3040fdb7e37484f6a1ca4f8f5da81e6b7e404ec91102315a233e03a0c39c95");
 
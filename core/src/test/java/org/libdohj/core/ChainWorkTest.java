@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Chain work accumulation, checked against {@link BigInteger}.
+ */
+public class ChainWorkTest {
+    private static final BigInteger TWO_POW_256 = BigInteger.ONE.shiftLeft(256);
+
+    private static BigInteger blockWork(final long difficultyTarget) {
+        return TWO_POW_256.divide(Utils.decodeCompactBits(difficultyTarget).add(BigInteger.ONE));
+    }
+
+    @Test
+    public void shouldAccumulateBlockWork() {
+        final long[] targets = { 0x1e0ffff0L, 0x1d00ffffL, 0x1b568bb8L, 0x1a0b6a3aL, 0x207fffffL };
+        final ChainWork chainWork = new ChainWork();
+        BigInteger expected = BigInteger.ZERO;
+        for (int i = 0; i < 10000; i++) {
+            final long target = targets[i % targets.length];
+            chainWork.addBlock(target);
+            expected = expected.add(blockWork(target));
+        }
+        assertEquals(expected, chainWork.toBigInteger());
+        assertEquals(ChainWork.valueOf(expected), chainWork);
+        assertEquals(expected.shiftLeft(1), ChainWork.valueOf(expected).add(chainWork).toBigInteger());
+        assertThrows(IllegalArgumentException.class, () -> chainWork.addBlock(0x1b800001L));
+    }
+
+    @Test
+    public void shouldSerializeAndCompare() {
+        final ByteBuffer buf = ByteBuffer.allocate(2 * ChainWork.SERIALIZED_LENGTH + 1);
+        final ChainWork less = ChainWork.valueOf(new BigInteger("00ffffffffffffffffffffff", 16));
+        final ChainWork more = ChainWork.valueOf(new BigInteger("010000000000000000000000", 16));
+        less.write(buf, 1);
+        more.write(buf, 1 + ChainWork.SERIALIZED_LENGTH);
+        assertEquals(0, buf.position());
+
+        assertEquals(less, new ChainWork().read(buf, 1));
+        assertEquals(more, new ChainWork().read(buf, 1 + ChainWork.SERIALIZED_LENGTH));
+        assertTrue(ChainWork.compare(buf, 1, buf, 1 + ChainWork.SERIALIZED_LENGTH) < 0);
+        assertTrue(ChainWork.compare(buf, 1 + ChainWork.SERIALIZED_LENGTH, buf, 1) > 0);
+        assertEquals(0, ChainWork.compare(buf, 1, buf, 1));
+        assertTrue(less.compareTo(more) < 0);
+
+        final ChainWork tooLarge = ChainWork.valueOf(BigInteger.ONE.shiftLeft(ChainWork.SERIALIZED_LENGTH * 8));
+        assertThrows(IllegalStateException.class, () -> tooLarge.write(buf, 0));
+    }
+}
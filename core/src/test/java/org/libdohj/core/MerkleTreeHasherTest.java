@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.Util;
+import org.bitcoinj.core.VerificationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.libdohj.params.DogecoinMainNetParams;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Merkle roots of blocks, checked against hashing each level in turn.
+ */
+public class MerkleTreeHasherTest {
+    private static final DogecoinMainNetParams params = DogecoinMainNetParams.get();
+
+    private MerkleTreeHasher hasher;
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+        hasher = new MerkleTreeHasher(4);
+    }
+
+    @After
+    public void tearDown() {
+        hasher.close();
+    }
+
+    private AltcoinBlock readBlock(final String name) throws IOException {
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/" + name));
+        return (AltcoinBlock) params.getDefaultSerializer().makeBlock(ByteBuffer.wrap(payload));
+    }
+
+    /**
+     * Calculate a merkle root a level at a time, duplicating the last hash
+     * of odd levels.
+     */
+    private static byte[] referenceRoot(final byte[] leaves, final int count) {
+        byte[][] level = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            level[i] = Arrays.copyOfRange(leaves, i * Sha256Hash.LENGTH, (i + 1) * Sha256Hash.LENGTH);
+        }
+        while (level.length > 1) {
+            final byte[][] next = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < next.length; i++) {
+                final byte[] left = level[i * 2];
+                final byte[] right = i * 2 + 1 < level.length ? level[i * 2 + 1] : left;
+                next[i] = Sha256Hash.hashTwice(left, 0, Sha256Hash.LENGTH, right, 0, Sha256Hash.LENGTH);
+            }
+            level = next;
+        }
+        return level[0];
+    }
+
+    @Test
+    public void shouldMatchBlockMerkleRoots() throws IOException {
+        for (String name : new String[] { "dogecoin_block1.bin", "dogecoin_block250000.bin",
+                "dogecoin_block371337.bin", "dogecoin_block748634.bin", "dogecoin_block894863.bin" }) {
+            final AltcoinBlock block = readBlock(name);
+            assertEquals(name, block.getMerkleRoot(), block.calculateMerkleRoot());
+            assertEquals(name, block.getMerkleRoot(), hasher.calculateRoot(block.getTransactions()));
+            block.verifyMerkleRoot();
+        }
+    }
+
+    @Test
+    public void shouldRejectMismatchedMerkleRoot() throws IOException {
+        final AltcoinBlock block = readBlock("dogecoin_block371337.bin");
+        block.setMerkleRoot(Sha256Hash.ZERO_HASH);
+        assertThrows(VerificationException.class, block::verifyMerkleRoot);
+    }
+
+    @Test
+    public void shouldMatchReferenceInParallel() {
+        final Random random = new Random(42);
+        // Large enough that the lower levels are split across the pool
+        for (int count : new int[] { 1, 2, 3, 5, 1023, 1024, 1025, 4097 }) {
+            final byte[] leaves = new byte[count * Sha256Hash.LENGTH];
+            random.nextBytes(leaves);
+            final byte[] expected = referenceRoot(leaves, count);
+            final byte[] hashes = leaves.clone();
+            assertFalse(hasher.hashInPlace(hashes, count));
+            assertArrayEquals("Root of " + count, expected, Arrays.copyOf(hashes, Sha256Hash.LENGTH));
+            assertEquals(Sha256Hash.wrapReversed(expected), MerkleTreeHasher.getDefault().calculateRoot(leaves, count));
+        }
+        assertEquals(Sha256Hash.ZERO_HASH, hasher.calculateRoot(new byte[0], 0));
+    }
+
+    @Test
+    public void shouldDetectDuplicatedTail() {
+        final Random random = new Random(7);
+        final byte[] leaves = new byte[6 * Sha256Hash.LENGTH];
+        random.nextBytes(leaves);
+        // Repeat the last two of six leaves, which gives the same root
+        final byte[] mutated = Arrays.copyOf(leaves, 8 * Sha256Hash.LENGTH);
+        System.arraycopy(leaves, 4 * Sha256Hash.LENGTH, mutated, 6 * Sha256Hash.LENGTH, 2 * Sha256Hash.LENGTH);
+
+        final byte[] original = leaves.clone();
+        assertFalse(hasher.hashInPlace(original, 6));
+        final byte[] hashes = mutated.clone();
+        assertTrue(hasher.hashInPlace(hashes, 8));
+        assertArrayEquals(Arrays.copyOf(original, Sha256Hash.LENGTH), Arrays.copyOf(hashes, Sha256Hash.LENGTH));
+        assertThrows(VerificationException.class, () -> hasher.calculateRoot(mutated, 8));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import com.lambdaworks.crypto.SCrypt;
+import org.bitcoinj.core.Util;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Check the allocation free Scrypt implementation against the reference one.
+ */
+public class ScryptContextTest {
+    /**
+     * Hash inputs either side of the HMAC block size, as longer keys take a
+     * different path, as well as the 80 byte header length.
+     */
+    @Test
+    public void shouldMatchReferenceImplementation() throws Exception {
+        final Random random = new Random(1);
+        final ScryptContext context = new ScryptContext();
+        for (int length : new int[] {0, 1, 32, 63, 64, 65, 80, 200}) {
+            final byte[] input = new byte[length];
+            random.nextBytes(input);
+            final byte[] actual = new byte[ScryptContext.DIGEST_LENGTH];
+            context.digest(input, 0, length, actual, 0);
+            assertArrayEquals(SCrypt.scrypt(input, input, 1024, 1, 1, 32), actual);
+        }
+    }
+
+    /**
+     * Hash the header of Dogecoin block #1, at an offset into a larger array.
+     */
+    @Test
+    public void shouldHashHeaderInPlace() throws Exception {
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/dogecoin_block1.bin"));
+        final byte[] header = Arrays.copyOf(payload, 80);
+        final byte[] output = new byte[ScryptContext.DIGEST_LENGTH + 8];
+        Utils.scryptDigest(payload, 0, 80, output, 8);
+        assertArrayEquals(SCrypt.scrypt(header, header, 1024, 1, 1, 32),
+            Arrays.copyOfRange(output, 8, output.length));
+        assertArrayEquals(Utils.scryptDigest(header), Arrays.copyOfRange(output, 8, output.length));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.bitcoinj.core.Util;
+import org.bitcoinj.core.VerificationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Batch Scrypt proof of work verification.
+ */
+public class ScryptProofOfWorkVerifierTest {
+    private ScryptProofOfWorkVerifier verifier;
+    private byte[] block1Header;
+    private byte[] block250000Header;
+
+    @Before
+    public void setUp() throws IOException {
+        verifier = new ScryptProofOfWorkVerifier(4);
+        block1Header = readHeader("dogecoin_block1.bin");
+        block250000Header = readHeader("dogecoin_block250000.bin");
+    }
+
+    @After
+    public void tearDown() {
+        verifier.close();
+    }
+
+    private byte[] readHeader(final String name) throws IOException {
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/" + name));
+        return Arrays.copyOf(payload, ScryptProofOfWorkVerifier.HEADER_LENGTH);
+    }
+
+    private byte[] withNonce(final byte[] header, final int nonce) {
+        final byte[] modified = header.clone();
+        modified[76] = (byte) nonce;
+        modified[77] = (byte) (nonce >> 8);
+        modified[78] = (byte) (nonce >> 16);
+        modified[79] = (byte) (nonce >> 24);
+        return modified;
+    }
+
+    @Test
+    public void shouldAcceptValidHeaders() {
+        assertTrue(ScryptProofOfWorkVerifier.checkProofOfWork(block1Header));
+        assertTrue(ScryptProofOfWorkVerifier.checkProofOfWork(block250000Header));
+        assertEquals(-1, verifier.findFirstInvalid(Arrays.asList(block1Header, block250000Header)));
+        assertEquals(-1, verifier.findFirstInvalid(Collections.<byte[]>emptyList()));
+    }
+
+    @Test
+    public void shouldRejectModifiedNonce() {
+        assertFalse(ScryptProofOfWorkVerifier.checkProofOfWork(withNonce(block250000Header, 1)));
+    }
+
+    /**
+     * Enough headers to be split across several tasks, with more than one
+     * failure, to confirm the lowest failing index is always reported.
+     */
+    @Test
+    public void shouldReportFirstInvalidHeaderInOrder() {
+        final List<byte[]> headers = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            headers.add(block250000Header);
+        }
+        headers.set(37, withNonce(block250000Header, 1));
+        headers.set(51, withNonce(block250000Header, 2));
+        assertEquals(37, verifier.findFirstInvalid(headers));
+
+        headers.set(5, withNonce(block250000Header, 3));
+        assertEquals(5, verifier.findFirstInvalid(headers));
+        assertThrows(VerificationException.class, () -> verifier.verify(headers));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.core;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 256 bit arithmetic, checked against {@link BigInteger}.
+ */
+public class Uint256Test {
+    private static final BigInteger TWO_POW_256 = BigInteger.ONE.shiftLeft(256);
+
+    /** Scrypt hash of Dogecoin block #250,000, and its target. */
+    private static final Sha256Hash BLOCK_250000_SCRYPT_HASH
+        = Sha256Hash.wrap("000000000055d1e26d58c7c549e799cd1da1fb2cb954b17f9e7e62b96a3ee5df");
+    private static final long BLOCK_250000_TARGET = 0x1b568bb8L;
+
+    @Test
+    public void shouldDecodeAndEncodeCompactBits() {
+        final long[] targets = { 0x1b568bb8L, 0x1e0fffffL, 0x1d00ffffL, 0x1b671062L, 0x03123456L,
+            0x02008000L, 0x01120000L, 0x20123456L, 0x2100ffffL, 0x220000ffL };
+        for (long compact : targets) {
+            final Uint256 value = Uint256.fromCompactBits(compact);
+            assertEquals(Long.toHexString(compact), Utils.decodeCompactBits(compact), value.toBigInteger());
+            assertEquals(Long.toHexString(compact), Utils.encodeCompactBits(value.toBigInteger()),
+                value.toCompactBits());
+        }
+    }
+
+    @Test
+    public void shouldEncodeZeroAsZeroCompactBits() {
+        assertEquals(0L, Utils.encodeCompactBits(BigInteger.ZERO));
+        assertEquals(0L, Uint256.fromCompactBits(0L).toCompactBits());
+        assertEquals(BigInteger.ZERO, Utils.decodeCompactBits(0L));
+    }
+
+    @Test
+    public void shouldRejectInvalidCompactTargets() {
+        assertFalse(Uint256.isValidCompactTarget(0x1b000000L));
+        assertFalse(Uint256.isValidCompactTarget(0x1b800001L));
+        assertFalse(Uint256.isValidCompactTarget(0x21010000L));
+        assertFalse(Uint256.isValidCompactTarget(0x23000001L));
+        assertThrows(IllegalArgumentException.class, () -> Uint256.fromCompactBits(0x1b800001L));
+        assertThrows(IllegalArgumentException.class, () -> Uint256.fromCompactBits(0x23000001L));
+    }
+
+    @Test
+    public void shouldCheckProofOfWork() {
+        assertTrue(Uint256.checkProofOfWork(BLOCK_250000_SCRYPT_HASH, BLOCK_250000_TARGET));
+        assertFalse(Uint256.checkProofOfWork(BLOCK_250000_SCRYPT_HASH, 0x1b55d1e2L));
+        assertTrue(Uint256.checkProofOfWork(BLOCK_250000_SCRYPT_HASH, 0x1b55d1e3L));
+        assertFalse(Uint256.checkProofOfWork(BLOCK_250000_SCRYPT_HASH, 0x1b000000L));
+
+        // Digests are little endian
+        final byte[] digest = BLOCK_250000_SCRYPT_HASH.getReversedBytes();
+        assertTrue(Uint256.checkProofOfWork(digest, 0, BLOCK_250000_TARGET));
+        assertFalse(Uint256.checkProofOfWork(digest, 0, 0x1b55d1e2L));
+
+        final Uint256 target = Uint256.fromCompactBits(BLOCK_250000_TARGET);
+        assertTrue(target.compareTo(BLOCK_250000_SCRYPT_HASH) > 0);
+        assertTrue(Uint256.valueOf(BLOCK_250000_SCRYPT_HASH).compareTo(target) < 0);
+    }
+
+    @Test
+    public void shouldCalculateWork() {
+        final Random random = new Random(250000);
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger target = new BigInteger(256, random).shiftRight(random.nextInt(256)).add(BigInteger.ONE);
+            final Uint256 work = new Uint256().setWork(Uint256.valueOf(target.min(TWO_POW_256.subtract(BigInteger.ONE))));
+            assertEquals(target.toString(16), TWO_POW_256.divide(target.add(BigInteger.ONE)), work.toBigInteger());
+        }
+        assertEquals(BigInteger.ONE,
+            new Uint256().setWork(Uint256.valueOf(TWO_POW_256.subtract(BigInteger.ONE))).toBigInteger());
+        assertThrows(IllegalArgumentException.class, () -> new Uint256().setWork(new Uint256()));
+    }
+
+    @Test
+    public void shouldAddWithCarry() {
+        final Random random = new Random(371337);
+        for (int i = 0; i < 1000; i++) {
+            final BigInteger a = new BigInteger(256, random);
+            final BigInteger b = new BigInteger(256, random).shiftRight(random.nextInt(256));
+            final Uint256 sum = Uint256.valueOf(a).add(Uint256.valueOf(b));
+            assertEquals(a.add(b).mod(TWO_POW_256), sum.toBigInteger());
+            assertEquals(Integer.signum(a.compareTo(b)), Integer.signum(Uint256.valueOf(a).compareTo(Uint256.valueOf(b))));
+        }
+    }
+
+    @Test
+    public void shouldReadAndWriteBigEndian() {
+        final Uint256 value = Uint256.valueOf(new BigInteger("0123456789abcdef01234567", 16));
+        final byte[] bytes = new byte[12];
+        value.writeBigEndian(bytes, 0, bytes.length);
+        assertArrayEquals(Utils.HEX.decode("0123456789abcdef01234567"), bytes);
+        assertEquals(value, new Uint256().readBigEndian(bytes, 0, bytes.length));
+        assertThrows(IllegalArgumentException.class, () -> value.writeBigEndian(new byte[8], 0, 8));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.names;
+
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.ProtocolException;
+import org.bitcoinj.core.Util;
+import org.bitcoinj.script.ScriptException;
+import org.junit.Before;
+import org.junit.Test;
+import org.libdohj.params.DogecoinMainNetParams;
+import org.libdohj.script.NameScript;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Name operations extracted from whole blocks.
+ */
+public class NameOperationsTest {
+    private static final DogecoinMainNetParams params = DogecoinMainNetParams.get();
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+    }
+
+    /**
+     * Build a block from the header of Dogecoin block 1 and a pay to public
+     * key hash transaction followed by the name_new, name_firstupdate and
+     * name_update of d/bitcoin. The merkle root does not match, which
+     * extraction does not check.
+     */
+    private byte[] buildBlock() throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/dogecoin_block1.bin")),
+            0, Block.HEADER_SIZE);
+        final String[] names = { "namecoin_p2pkh.bin", "namecoin_name_new_d_bitcoin.bin",
+            "namecoin_name_firstupdate_d_bitcoin.bin", "namecoin_name_update_d_bitcoin.bin" };
+        stream.write(names.length);
+        for (String name : names) {
+            stream.write(Util.getBytes(getClass().getResourceAsStream(name)));
+        }
+        return stream.toByteArray();
+    }
+
+    private static String text(final byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void assertOperations(final NameOperations ops) {
+        assertEquals(3, ops.size());
+        assertEquals(100, ops.getHeight());
+
+        assertEquals(1, ops.getTxIndex(0));
+        assertEquals(1, ops.getOutputIndex(0));
+        assertEquals(NameScript.OP_NAME_NEW, ops.getOp(0));
+        assertFalse(ops.isAnyUpdate(0));
+        assertThrows(ScriptException.class, () -> ops.getName(0));
+
+        assertEquals(2, ops.getTxIndex(1));
+        assertEquals(NameScript.OP_NAME_FIRSTUPDATE, ops.getOp(1));
+        assertEquals(Name.of("d/bitcoin"), ops.getName(1));
+        assertEquals("webpagedeveloper.me/namecoin", text(ops.getValue(1)));
+
+        assertEquals(3, ops.getTxIndex(2));
+        assertEquals(1, ops.getOutputIndex(2));
+        assertEquals(NameScript.OP_NAME_UPDATE, ops.getOp(2));
+        assertEquals(0xcf, ops.getValueLength(2));
+        assertTrue(text(ops.getValue(2)).startsWith("{\"info\":"));
+
+        assertEquals(1, ops.indexOfAnyUpdate("d/bitcoin"));
+        assertEquals(1, ops.indexOfAnyUpdate(Name.of("d/bitcoin")));
+        assertEquals(-1, ops.indexOfAnyUpdate("d/namecoin"));
+        assertEquals(-1, ops.indexOfAnyUpdate(Name.of("d/namecoin")));
+    }
+
+    @Test
+    public void shouldExtractFromSerializedBlock() throws IOException {
+        final byte[] payload = buildBlock();
+        // Start part way into the buffer
+        final ByteBuffer buf = ByteBuffer.allocate(payload.length + 3);
+        buf.position(3);
+        buf.put(payload).position(3);
+
+        final NameOperations ops = NameOperations.extract(buf, 100);
+        assertEquals(3, buf.position());
+        assertOperations(ops);
+    }
+
+    @Test
+    public void shouldMatchDecodedBlock() throws IOException {
+        final byte[] payload = buildBlock();
+        final NameOperations raw = NameOperations.extract(ByteBuffer.wrap(payload), 100);
+        final Block block = params.getDefaultSerializer().makeBlock(ByteBuffer.wrap(payload));
+        final NameOperations decoded = NameOperations.extract(block.getTransactions(), 100);
+        assertOperations(decoded);
+        for (int i = 0; i < raw.size(); i++) {
+            assertEquals(raw.getTxIndex(i), decoded.getTxIndex(i));
+            assertEquals(raw.getOutputIndex(i), decoded.getOutputIndex(i));
+            assertArrayEquals(raw.getScript(i), decoded.getScript(i));
+        }
+    }
+
+    @Test
+    public void shouldExtractNothingFromDogecoinBlocks() throws IOException {
+        // Including a merged-mined block, whose AuxPoW header is skipped
+        for (String name : new String[] { "dogecoin_block1.bin", "dogecoin_block371337.bin" }) {
+            final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/" + name));
+            assertTrue(name, NameOperations.extract(ByteBuffer.wrap(payload), 1).isEmpty());
+        }
+        final byte[] header = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/dogecoin_block1.bin"));
+        assertTrue(NameOperations.extract(ByteBuffer.wrap(header, 0, Block.HEADER_SIZE), 1).isEmpty());
+    }
+
+    @Test
+    public void shouldRejectTruncatedBlock() throws IOException {
+        final byte[] payload = buildBlock();
+        assertThrows(ProtocolException.class,
+            () -> NameOperations.extract(ByteBuffer.wrap(Arrays.copyOf(payload, payload.length - 1)), 100));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.names;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Names as byte keys, compared without converting to strings.
+ */
+public class NameTest {
+    @Test
+    public void shouldMatchIsoLatin1Bytes() {
+        for (String text : new String[] { "", "d/bitcoin", "id/caf\u00e9", "\u00ff\u0000" }) {
+            final byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+            final Name name = Name.of(text);
+            assertArrayEquals(text, bytes, name.getBytes());
+            assertEquals(text, name.toString());
+            assertEquals(text, Name.copyOf(bytes), name);
+            assertEquals(text, Name.copyOf(bytes).hashCode(), name.hashCode());
+            assertTrue(text, name.contentEquals(text));
+            assertEquals(text.length(), name.length());
+        }
+        assertThrows(IllegalArgumentException.class, () -> Name.of("d/\u0101"));
+    }
+
+    @Test
+    public void shouldCompareWithoutConverting() {
+        final Name name = Name.of("d/bitcoin");
+        assertFalse(name.contentEquals("d/bitcoin2"));
+        assertFalse(name.contentEquals("d/bitcoiN"));
+        assertNotEquals(Name.of("d/bitcoin2"), name);
+
+        final byte[] script = "R\u0009d/bitcoin\u0001x".getBytes(StandardCharsets.ISO_8859_1);
+        assertTrue(name.contentEquals(script, 2, 9));
+        assertFalse(name.contentEquals(script, 1, 9));
+        assertFalse(name.contentEquals(script, 2, 8));
+        assertEquals(name, Name.copyOf(script, 2, 9));
+
+        // Copies are not affected by later changes
+        final byte[] bytes = name.getBytes();
+        bytes[0] = 'x';
+        assertEquals("d/bitcoin", name.toString());
+    }
+
+    @Test
+    public void shouldBuildPrefixedKey() {
+        final byte[] prefix = "NamScr".getBytes(StandardCharsets.ISO_8859_1);
+        assertArrayEquals("NamScrd/bitcoin".getBytes(StandardCharsets.ISO_8859_1),
+            Name.of("d/bitcoin").toKey(prefix));
+        assertArrayEquals(prefix, Name.of("").toKey(prefix));
+    }
+}
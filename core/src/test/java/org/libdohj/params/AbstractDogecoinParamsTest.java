@@ -21,11 +21,15 @@ import org.bitcoinj.core.*;
 import org.junit.Before;
 import org.junit.Test;
 import org.libdohj.core.AltcoinSerializer;
+import org.libdohj.store.CompactHeaderStore;
 
 import java.io.IOException;
+import java.math.BigInteger;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
 
 /**
  *
@@ -138,6 +142,101 @@ public class AbstractDogecoinParamsTest {
         assertEquals(block720.getDifficultyTarget(), params.calculateNewDifficultyTargetInner(719, block719, block720, block479));
     }
 
+    private static StoredBlock storeHeader(final CompactHeaderStore store, final int height,
+                                           final Sha256Hash prevBlockHash, final long time,
+                                           final long difficultyTarget) throws Exception {
+        final AltcoinBlock header = new AltcoinBlock(params.network(), 1, prevBlockHash,
+            Sha256Hash.ZERO_HASH, time, difficultyTarget, 0, null);
+        final StoredBlock stored = new StoredBlock(header, BigInteger.ONE, height);
+        store.put(stored);
+        return stored;
+    }
+
+    /**
+     * Check difficulty up to the second retarget, with blocks found twice as
+     * fast as the target spacing so the target halves. The store starts at
+     * block 239, so the first retarget is taken on trust.
+     */
+    @Test
+    public void shouldCheckDifficultyTransitions() throws Exception {
+        final long startTime = 1386474927;
+        final CompactHeaderStore store = new CompactHeaderStore(params);
+        final CompactHeaderStore partialStore = new CompactHeaderStore(params);
+        final StoredBlock[] chain = new StoredBlock[480];
+        for (int height = 239; height < chain.length; height++) {
+            chain[height] = storeHeader(store, height,
+                height == 239 ? Sha256Hash.ZERO_HASH : chain[height - 1].getHeader().getHash(),
+                startTime + height * 30, 0x1e0ffff0);
+            if (height > 239) {
+                params.checkDifficultyTransitions(chain[height - 1], chain[height].getHeader(), store);
+            }
+            if (height >= 300) {
+                partialStore.put(chain[height]);
+            }
+        }
+
+        final Block retarget = new AltcoinBlock(params.network(), 1, chain[479].getHeader().getHash(),
+            Sha256Hash.ZERO_HASH, startTime + 480 * 30, 0x1e07fff8, 0, null);
+        params.checkDifficultyTransitions(chain[479], retarget, store);
+        final Block unchanged = new AltcoinBlock(params.network(), 1, chain[479].getHeader().getHash(),
+            Sha256Hash.ZERO_HASH, startTime + 480 * 30, 0x1e0ffff0, 0, null);
+        assertThrows(VerificationException.class,
+            () -> params.checkDifficultyTransitions(chain[479], unchanged, store));
+
+        // Between retargets the difficulty must not change, including on a fork
+        final Block changed = new AltcoinBlock(params.network(), 1, chain[299].getHeader().getHash(),
+            Sha256Hash.ZERO_HASH, startTime + 300 * 30, 0x1e07fff8, 0, null);
+        assertThrows(VerificationException.class,
+            () -> params.checkDifficultyTransitions(chain[299], changed, store));
+        params.checkDifficultyTransitions(chain[479], retarget, store);
+
+        // Without the start of the interval, the retarget is taken on trust
+        params.checkDifficultyTransitions(chain[479], unchanged, partialStore);
+    }
+
+    /**
+     * Testnet allows a minimum difficulty block under Digishield once no block
+     * has been found for twice the target spacing, from block 157,500.
+     */
+    @Test
+    public void shouldAllowDigishieldMinDifficultyOnTestnet() {
+        final AbstractDogecoinParams testnet = DogecoinTestNet3Params.get();
+        final long minDifficulty = org.libdohj.core.Utils.encodeCompactBits(testnet.getMaxTarget());
+        final long startTime = 1400000000L;
+        for (int previousHeight : new int[] {157499, 157500}) {
+            final DifficultyWindow window = new DifficultyWindow(testnet);
+            final AltcoinBlock first = new AltcoinBlock(testnet.network(), 1, Sha256Hash.ZERO_HASH,
+                Sha256Hash.ZERO_HASH, startTime, 0x1c0fffffL, 0, null);
+            final AltcoinBlock previous = new AltcoinBlock(testnet.network(), 1, first.getHash(),
+                Sha256Hash.ZERO_HASH, startTime + 60, 0x1c0fffffL, 0, null);
+            window.connect(new StoredBlock(first, BigInteger.ONE, previousHeight - 1));
+            window.connect(new StoredBlock(previous, BigInteger.ONE, previousHeight));
+
+            final AltcoinBlock next = new AltcoinBlock(testnet.network(), 1, previous.getHash(),
+                Sha256Hash.ZERO_HASH, startTime + 60 + 120, minDifficulty, 0, null);
+            assertNotEquals(minDifficulty, testnet.calculateNewDifficultyTarget(window, next));
+
+            // The time is read from the header, however it was set
+            next.setTime(startTime + 60 + 121);
+            assertEquals(startTime + 60 + 121, next.time().getEpochSecond());
+            if (previousHeight >= AbstractDogecoinParams.DIGISHIELD_MIN_DIFFICULTY_BLOCK_HEIGHT) {
+                assertEquals(minDifficulty, testnet.calculateNewDifficultyTarget(window, next));
+            } else {
+                assertNotEquals(minDifficulty, testnet.calculateNewDifficultyTarget(window, next));
+            }
+        }
+
+        // Never on main network
+        final DifficultyWindow window = new DifficultyWindow(params);
+        final AltcoinBlock previous = new AltcoinBlock(params.network(), 1, Sha256Hash.ZERO_HASH,
+            Sha256Hash.ZERO_HASH, startTime, 0x1b0fffffL, 0, null);
+        window.connect(new StoredBlock(previous, BigInteger.ONE, 200000));
+        final AltcoinBlock late = new AltcoinBlock(params.network(), 1, previous.getHash(),
+            Sha256Hash.ZERO_HASH, startTime + 3600, 0x1b0fffffL, 0, null);
+        assertNotEquals(org.libdohj.core.Utils.encodeCompactBits(params.getMaxTarget()),
+            params.calculateNewDifficultyTarget(window, late));
+    }
+
     /**
      * Confirm subsidy rules follow Dogecoin pattern.
      */
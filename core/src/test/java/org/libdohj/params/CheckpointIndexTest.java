@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.store.BlockStoreException;
+import org.junit.Before;
+import org.junit.Test;
+import org.libdohj.store.CompactHeaderStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checkpoint lookup, and starting a block store from a checkpoint.
+ */
+public class CheckpointIndexTest {
+    private static final AbstractDogecoinParams params = DogecoinMainNetParams.get();
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+    }
+
+    @Test
+    public void shouldFindNearestCheckpointHash() {
+        final CheckpointIndex index = params.getCheckpointIndex();
+        assertEquals(19, index.size());
+        assertEquals(400002, index.getLastHeight());
+        assertFalse(index.hasStoredBlocks());
+
+        assertEquals(250000, index.getHeight(index.floorIndex(250000)));
+        assertEquals(250000, index.getHeight(index.floorIndex(270638)));
+        assertEquals(400002, index.getHeight(index.floorIndex(Integer.MAX_VALUE)));
+        assertEquals(0, index.floorIndex(42278));
+        assertEquals(-1, index.floorIndex(-1));
+        assertEquals(-1, index.indexOf(250001));
+
+        final Sha256Hash block250000
+            = Sha256Hash.wrap("0e4bcfe8d970979f7e30e2809ab51908d435677998cf759169407824d4f36460");
+        assertEquals(block250000, index.getHash(index.indexOf(250000)));
+        assertTrue(index.passes(250000, block250000));
+        assertTrue(index.passes(250001, block250000));
+        assertFalse(index.passes(250000, Sha256Hash.ZERO_HASH));
+    }
+
+    @Test
+    public void shouldLoadCheckpointsFile() throws IOException {
+        final CheckpointIndex index = CheckpointIndex.load(params);
+        assertTrue(index.hasStoredBlocks());
+        assertEquals(203, index.size());
+        assertEquals(4800, index.getHeight(0));
+        assertEquals(974400, index.getLastHeight());
+
+        final int found = index.floorIndex(250000);
+        assertEquals(249600, index.getHeight(found));
+        final StoredBlock checkpoint = index.getStoredBlock(found);
+        assertEquals(249600, checkpoint.getHeight());
+        assertEquals(new BigInteger("c724c00180290b2", 16), checkpoint.getChainWork());
+        assertEquals(Sha256Hash.wrap("855b288c3d0328c2cc6cc70f4ec013af67741839184af8ee48d257d7b89e6c22"),
+            checkpoint.getHeader().getHash());
+        assertEquals(index.getHash(found), checkpoint.getHeader().getHash());
+    }
+
+    @Test
+    public void shouldBootstrapStoreFromCheckpoint() throws Exception {
+        final CheckpointIndex index = CheckpointIndex.load(params);
+        final CompactHeaderStore store = new CompactHeaderStore(params);
+        final StoredBlock checkpoint = index.bootstrap(store, 250000);
+        assertEquals(249600, checkpoint.getHeight());
+        final StoredBlock head = store.getChainHead();
+        assertEquals(checkpoint.getHeader().getHash(), head.getHeader().getHash());
+        assertEquals(checkpoint.getChainWork(), head.getChainWork());
+        assertEquals(249600, store.getByHeight(249600).getHeight());
+
+        assertThrows(BlockStoreException.class, () -> index.bootstrap(new CompactHeaderStore(params), 4799));
+        assertThrows(BlockStoreException.class,
+            () -> params.getCheckpointIndex().bootstrap(new CompactHeaderStore(params), 250000));
+    }
+
+    @Test
+    public void shouldRejectInvalidCheckpointsFile() {
+        final byte[] text = "TXT CHECKPOINTS 1\n0\n0\n".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IOException.class,
+            () -> CheckpointIndex.read(params.network(), new ByteArrayInputStream(text)));
+        final byte[] truncated = "CHECKPOINTS 1\0\0\0\0\0\0\0\1".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IOException.class,
+            () -> CheckpointIndex.read(params.network(), new ByteArrayInputStream(truncated)));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Coin;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.Util;
+import org.bitcoinj.core.VerificationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Coinbase reward checks against the subsidy schedule.
+ */
+public class CoinbaseRewardValidatorTest {
+    private static final AbstractDogecoinParams params = DogecoinMainNetParams.get();
+
+    private final CoinbaseRewardValidator validator = new CoinbaseRewardValidator(params);
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+    }
+
+    private ByteBuffer readBlock(final String name) throws IOException {
+        return ByteBuffer.wrap(Util.getBytes(getClass().getResourceAsStream(name)));
+    }
+
+    @Test
+    public void shouldAcceptSubsidyPlusFees() throws IOException {
+        // Merged-mined block, whose coinbase pays 62,502 DOGE
+        final ByteBuffer payload = readBlock("/org/bitcoinj/core/dogecoin_block371337.bin");
+        validator.verifyCoinbase(371337, payload, Coin.COIN.multiply(2).value);
+        assertEquals(0, payload.position());
+
+        final Block block = params.getDefaultSerializer().makeBlock(payload.duplicate());
+        validator.verifyCoinbase(371337, block, Coin.COIN.multiply(2).value);
+    }
+
+    @Test
+    public void shouldRejectCoinbasePayingTooMuch() throws IOException {
+        final ByteBuffer payload = readBlock("/org/bitcoinj/core/dogecoin_block371337.bin");
+        assertThrows(VerificationException.class,
+            () -> validator.verifyCoinbase(371337, payload, Coin.COIN.value));
+        final Block block = params.getDefaultSerializer().makeBlock(payload.duplicate());
+        assertThrows(VerificationException.class,
+            () -> validator.verifyCoinbase(371337, block, Coin.COIN.value));
+
+        // Block 1 pays 68,416 DOGE, far more than the stable subsidy
+        final ByteBuffer block1 = readBlock("/org/bitcoinj/core/dogecoin_block1.bin");
+        validator.verifyCoinbase(1, block1, 0);
+        assertThrows(VerificationException.class, () -> validator.verifyCoinbase(600000, block1, 0));
+    }
+
+    @Test
+    public void shouldVerifyRunOfBlocks() throws IOException {
+        validator.verifyBlocks(719, Arrays.asList(readBlock("dogecoin_block719.bin"),
+            readBlock("dogecoin_block720.bin")), new long[] { 0, 0 });
+
+        // Pays 10,007 DOGE, which is within the subsidy just before the
+        // stable era, but needs its fees from the first stable block
+        final ByteBuffer block748634 = readBlock("/org/bitcoinj/core/dogecoin_block748634.bin");
+        final long fees = Coin.COIN.multiply(7).value;
+        validator.verifyBlocks(599999, Arrays.asList(block748634, block748634), new long[] { fees, fees });
+        final VerificationException e = assertThrows(VerificationException.class,
+            () -> validator.verifyBlocks(599999, Arrays.asList(block748634, block748634), new long[] { fees, 0 }));
+        assertTrue(e.getMessage().contains("height 600000"));
+    }
+
+    @Test
+    public void shouldRejectHeaderOnly() throws IOException {
+        final ByteBuffer header = ByteBuffer.wrap(Arrays.copyOf(
+            Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/dogecoin_block1.bin")),
+            Block.HEADER_SIZE));
+        assertThrows(VerificationException.class, () -> validator.verifyCoinbase(1, header, 0));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.Util;
+import org.bitcoinj.core.VerificationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Header verification with and without the checkpointed fast path.
+ */
+public class DogecoinHeaderVerifierTest {
+    private static final AbstractDogecoinParams params = DogecoinMainNetParams.get();
+    private static final Sha256Hash GENESIS_HASH
+        = Sha256Hash.wrap("1a91e3dace36e2be3bf030a65679fe821aa1d6ef92e7c9902eb318182c355691");
+
+    private final DogecoinHeaderVerifier full = new DogecoinHeaderVerifier(params, DogecoinHeaderVerifier.Mode.FULL);
+    private final DogecoinHeaderVerifier checkpointed
+        = new DogecoinHeaderVerifier(params, DogecoinHeaderVerifier.Mode.CHECKPOINTED);
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+    }
+
+    private AltcoinBlock readBlock(final String name) throws IOException {
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/" + name));
+        return (AltcoinBlock) params.getDefaultSerializer().makeBlock(ByteBuffer.wrap(payload));
+    }
+
+    @Test
+    public void shouldFindLastCheckpoint() {
+        assertEquals(400002, params.getLastCheckpointHeight());
+        assertTrue(checkpointed.isHeaderOnly(400002));
+        assertFalse(checkpointed.isHeaderOnly(400003));
+        assertFalse(full.isHeaderOnly(1));
+    }
+
+    @Test
+    public void shouldVerifyValidHeader() throws IOException {
+        final AltcoinBlock block = readBlock("dogecoin_block1.bin");
+        full.verifyHeader(1, GENESIS_HASH, block);
+        checkpointed.verifyHeader(1, GENESIS_HASH, block);
+        full.verifyHeaders(1, GENESIS_HASH, Collections.singletonList(block));
+    }
+
+    @Test
+    public void shouldVerifyFullBlock() throws IOException {
+        // Block 1 pays 68,416 DOGE, within the random subsidy of the time
+        final AltcoinBlock block = readBlock("dogecoin_block1.bin");
+        full.verifyBlock(1, GENESIS_HASH, block, 0);
+        checkpointed.verifyBlock(1, GENESIS_HASH, block, 0);
+    }
+
+    @Test
+    public void shouldRejectFullBlockNotConnected() throws IOException {
+        final AltcoinBlock block = readBlock("dogecoin_block1.bin");
+        final VerificationException e = assertThrows(VerificationException.class,
+            () -> full.verifyBlock(1, Sha256Hash.ZERO_HASH, block, 0));
+        assertTrue(e.getMessage(), e.getMessage().contains("does not connect to previous block"));
+    }
+
+    @Test
+    public void shouldRejectCoinbaseOverSubsidy() throws IOException {
+        // Far more than the stable subsidy
+        final AltcoinBlock block = readBlock("dogecoin_block1.bin");
+        final VerificationException e = assertThrows(VerificationException.class,
+            () -> full.getCoinbaseValidator().verifyCoinbase(600000, block, 0));
+        assertTrue(e.getMessage(), e.getMessage().contains("more than the subsidy of"));
+    }
+
+    @Test
+    public void shouldRejectMutatedMerkleRoot() throws IOException {
+        final AltcoinBlock mutated = readBlock("dogecoin_block1.bin");
+        mutated.setMerkleRoot(Sha256Hash.ZERO_HASH);
+        VerificationException e = assertThrows(VerificationException.class, mutated::verifyMerkleRoot);
+        assertTrue(e.getMessage(), e.getMessage().startsWith("Merkle hashes do not match"));
+
+        // Transactions are checked even where the header is fixed by checkpoints
+        e = assertThrows(VerificationException.class, () -> checkpointed.verifyBlock(2, GENESIS_HASH, mutated, 0));
+        assertTrue(e.getMessage(), e.getMessage().startsWith("Merkle hashes do not match"));
+    }
+
+    @Test
+    public void shouldVerifyMergedMinedHeaders() throws IOException {
+        final String[] names = {"dogecoin_block371337.bin", "dogecoin_block748634.bin", "dogecoin_block894863.bin"};
+        final int[] heights = {371337, 748634, 894863};
+        for (int i = 0; i < names.length; i++) {
+            final AltcoinBlock block = readBlock(names[i]);
+            full.verifyHeader(heights[i], block.getPrevBlockHash(), block);
+            checkpointed.verifyHeader(heights[i], block.getPrevBlockHash(), block);
+        }
+    }
+
+    @Test
+    public void shouldRejectAuxPoWForAnotherBlock() throws IOException {
+        final AltcoinBlock block = readBlock("dogecoin_block371337.bin");
+        block.setNonce(block.getNonce() + 1);
+        final VerificationException e = assertThrows(VerificationException.class,
+            () -> full.verifyProofOfWork(371337, block));
+        assertEquals("Aux POW missing chain merkle root in parent coinbase", e.getMessage());
+    }
+
+    @Test
+    public void shouldRejectAuxPoWWithParentChainId() throws IOException {
+        final AltcoinBlock block = readBlock("dogecoin_block371337.bin");
+        final int parentChainId = block.getAuxPoW().getParentBlockHeader().getChainID();
+        final VerificationException e = assertThrows(VerificationException.class,
+            () -> block.getAuxPoW().checkAuxBlock(block.getHash(), parentChainId));
+        assertEquals("Aux POW parent has our chain ID", e.getMessage());
+    }
+
+    @Test
+    public void shouldSkipProofOfWorkBelowLastCheckpoint() throws IOException {
+        final AltcoinBlock block = readBlock("dogecoin_block1.bin");
+        block.setNonce(1);
+        checkpointed.verifyHeader(1, GENESIS_HASH, block);
+        assertThrows(VerificationException.class, () -> full.verifyHeader(1, GENESIS_HASH, block));
+    }
+
+    @Test
+    public void shouldRejectUnconnectedHeader() throws IOException {
+        final AltcoinBlock block = readBlock("dogecoin_block1.bin");
+        assertThrows(VerificationException.class,
+            () -> checkpointed.verifyHeader(1, Sha256Hash.ZERO_HASH, block));
+    }
+
+    @Test
+    public void shouldRejectCheckpointMismatch() throws IOException {
+        final AltcoinBlock block = readBlock("dogecoin_block1.bin");
+        assertThrows(VerificationException.class,
+            () -> checkpointed.verifyHeader(42279, GENESIS_HASH, block));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Coin;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Subsidy schedule, checked against the subsidy of each block in turn.
+ */
+public class DogecoinSubsidyScheduleTest {
+    private static final Coin BASE_SUBSIDY = Coin.COIN.multiply(500000);
+    private static final Coin STABLE_SUBSIDY = Coin.COIN.multiply(10000);
+
+    private static Coin blockSubsidy(final int height, final int subsidyDecreaseBlockCount) {
+        if (height < AbstractDogecoinParams.DIGISHIELD_BLOCK_HEIGHT) {
+            return BASE_SUBSIDY.shiftRight(height / subsidyDecreaseBlockCount).multiply(2);
+        } else if (height < AbstractDogecoinParams.STABLE_SUBSIDY_BLOCK_HEIGHT) {
+            return BASE_SUBSIDY.shiftRight(height / subsidyDecreaseBlockCount);
+        } else {
+            return STABLE_SUBSIDY;
+        }
+    }
+
+    @Test
+    public void shouldMatchSubsidyOfEachBlock() {
+        final AbstractDogecoinParams params = DogecoinMainNetParams.get();
+        final DogecoinSubsidySchedule schedule = params.getSubsidySchedule();
+        assertSame(schedule, params.getSubsidySchedule());
+        assertEquals(8, schedule.size());
+
+        BigInteger total = BigInteger.ZERO;
+        for (int height = 0; height < 700000; height++) {
+            final Coin expected = blockSubsidy(height, 100000);
+            assertEquals(expected, schedule.getBlockSubsidy(height));
+            assertEquals(expected.value, schedule.getBlockSubsidyValue(height));
+            total = total.add(BigInteger.valueOf(expected.value));
+            if (height % 1000 == 999 || height == 144999 || height == 145000) {
+                assertEquals(total, schedule.getCumulativeSubsidy(height));
+            }
+        }
+        assertEquals(STABLE_SUBSIDY, params.getBlockSubsidy(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> schedule.getBlockSubsidy(-1));
+    }
+
+    @Test
+    public void shouldCalculateCumulativeSubsidy() {
+        final DogecoinSubsidySchedule schedule = DogecoinMainNetParams.get().getSubsidySchedule();
+        assertEquals(BigInteger.ZERO, schedule.getCumulativeSubsidy(-1));
+        assertEquals(BigInteger.valueOf(1000000L * 100000000L), schedule.getCumulativeSubsidy(0));
+        assertEquals(new BigInteger("12250000000000000000"), schedule.getCumulativeSubsidy(144999));
+        assertEquals(new BigInteger("15968750000000000000"), schedule.getCumulativeSubsidy(599999));
+        assertEquals(new BigInteger("15968750000000000000")
+                .add(BigInteger.valueOf(STABLE_SUBSIDY.value).multiply(BigInteger.valueOf(Integer.MAX_VALUE - 599999L))),
+            schedule.getCumulativeSubsidy(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldReachZeroBetweenHalvingsAndStableSubsidy() {
+        // Halving every 150 blocks, as on regtest
+        final DogecoinSubsidySchedule schedule = new DogecoinSubsidySchedule(150,
+            AbstractDogecoinParams.DIGISHIELD_BLOCK_HEIGHT, AbstractDogecoinParams.STABLE_SUBSIDY_BLOCK_HEIGHT,
+            BASE_SUBSIDY, STABLE_SUBSIDY);
+        BigInteger total = BigInteger.ZERO;
+        for (int height = 0; height < 64 * 150; height++) {
+            final Coin expected = blockSubsidy(height, 150);
+            assertEquals(expected, schedule.getBlockSubsidy(height));
+            total = total.add(BigInteger.valueOf(expected.value));
+        }
+        assertEquals(Coin.ZERO, schedule.getBlockSubsidy(64 * 150));
+        assertEquals(Coin.ZERO, schedule.getBlockSubsidy(599999));
+        assertEquals(STABLE_SUBSIDY, schedule.getBlockSubsidy(600000));
+        assertEquals(total, schedule.getCumulativeSubsidy(599999));
+    }
+}
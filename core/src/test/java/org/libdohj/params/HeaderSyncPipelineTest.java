@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.params;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.core.Util;
+import org.bitcoinj.core.VerificationException;
+import org.junit.Before;
+import org.junit.Test;
+import org.libdohj.store.CompactHeaderStore;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Header sync through the parse, verify and connect stages.
+ */
+public class HeaderSyncPipelineTest {
+    private static final AbstractDogecoinParams params = DogecoinMainNetParams.get();
+
+    private final DogecoinHeaderVerifier checkpointed
+        = new DogecoinHeaderVerifier(params, DogecoinHeaderVerifier.Mode.CHECKPOINTED);
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+    }
+
+    /**
+     * Build a chain of synthetic headers, each following the last. Their
+     * proof of work is not valid.
+     */
+    private static List<AltcoinBlock> buildHeaders(final Sha256Hash start, final int length) {
+        final List<AltcoinBlock> headers = new ArrayList<>(length);
+        Sha256Hash prevBlockHash = start;
+        for (int i = 0; i < length; i++) {
+            final AltcoinBlock header = new AltcoinBlock(params.network(), 0x00620004L, prevBlockHash,
+                Sha256Hash.ZERO_HASH, 1400000000L + i, 0x1b568bb8L, i, null);
+            headers.add(header);
+            prevBlockHash = header.getHash();
+        }
+        return headers;
+    }
+
+    private static StoredBlock startBlock(final int height) {
+        final AltcoinBlock header = new AltcoinBlock(params.network(), 0x00620004L, Sha256Hash.ZERO_HASH,
+            Sha256Hash.ZERO_HASH, 1400000000L, 0x1b568bb8L, height, null);
+        return new StoredBlock(header, BigInteger.valueOf(height), height);
+    }
+
+    private static ByteBuffer serialize(final AltcoinBlock header) {
+        final byte[] bytes = new byte[Block.HEADER_SIZE];
+        header.writeHeader(bytes, 0);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    @Test
+    public void shouldConnectHeadersInOrder() throws Exception {
+        // Below the last checkpoint, so proof of work is not checked
+        final StoredBlock start = startBlock(100000);
+        final CompactHeaderStore store = new CompactHeaderStore(params);
+        store.put(start);
+        final List<Integer> heights = new ArrayList<>();
+        final HeaderSyncPipeline pipeline = new HeaderSyncPipeline(params, checkpointed, start,
+            (height, header) -> {
+                heights.add(height);
+                store.putNext(header);
+            }, 2, 4, 16);
+        final List<AltcoinBlock> headers = buildHeaders(start.getHeader().getHash(), 1000);
+        for (AltcoinBlock header : headers) {
+            pipeline.submit(serialize(header));
+        }
+        pipeline.flush();
+        pipeline.close();
+
+        assertEquals(101000, pipeline.getConnectedHeight());
+        assertEquals(1001, store.size());
+        for (int i = 0; i < heights.size(); i++) {
+            assertEquals(100001 + i, (int) heights.get(i));
+        }
+        final StoredBlock last = store.get(headers.get(999).getHash());
+        assertEquals(101000, last.getHeight());
+    }
+
+    @Test
+    public void shouldStopAtUnconnectedHeader() throws Exception {
+        final StoredBlock start = startBlock(100000);
+        final HeaderSyncPipeline pipeline = new HeaderSyncPipeline(params, checkpointed, start,
+            (height, header) -> { }, 2, 2, 8);
+        final List<AltcoinBlock> headers = buildHeaders(start.getHeader().getHash(), 20);
+        headers.set(10, buildHeaders(Sha256Hash.ZERO_HASH, 1).get(0));
+        for (AltcoinBlock header : headers) {
+            try {
+                pipeline.submit(serialize(header));
+            } catch (ExecutionException e) {
+                // The failure may already have been seen
+                break;
+            }
+        }
+        final ExecutionException e = assertThrows(ExecutionException.class, pipeline::flush);
+        assertTrue(e.getCause() instanceof VerificationException);
+        assertEquals(100010, pipeline.getConnectedHeight());
+        assertThrows(ExecutionException.class, () -> pipeline.submit(serialize(headers.get(0))));
+        pipeline.close();
+    }
+
+    @Test
+    public void shouldRejectInvalidProofOfWork() throws Exception {
+        // Above the last checkpoint, so proof of work is checked
+        final StoredBlock start = startBlock(params.getLastCheckpointHeight() + 1);
+        final HeaderSyncPipeline pipeline = new HeaderSyncPipeline(params, checkpointed, start,
+            (height, header) -> { }, 1, 1, 4);
+        pipeline.submit(serialize(buildHeaders(start.getHeader().getHash(), 1).get(0)));
+        final ExecutionException e = assertThrows(ExecutionException.class, pipeline::flush);
+        assertTrue(e.getCause() instanceof VerificationException);
+        assertEquals(start.getHeight(), pipeline.getConnectedHeight());
+        pipeline.close();
+    }
+
+    @Test
+    public void shouldConnectMergedMinedHeader() throws Exception {
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/dogecoin_block894863.bin"));
+        final AltcoinBlock block = (AltcoinBlock) params.getDefaultSerializer().makeBlock(ByteBuffer.wrap(payload));
+        // A stand-in for block 894,862, above the last checkpoint so the AuxPoW is checked
+        final StoredBlock start = startBlock(894862);
+        ((AltcoinBlock) start.getHeader()).setHash(block.getPrevBlockHash());
+        final DogecoinHeaderVerifier full = new DogecoinHeaderVerifier(params, DogecoinHeaderVerifier.Mode.FULL);
+        final List<Sha256Hash> connected = new ArrayList<>();
+        final HeaderSyncPipeline pipeline = new HeaderSyncPipeline(params, full, start,
+            (height, header) -> connected.add(header.getHash()), 1, 1, 4);
+        pipeline.submit(ByteBuffer.wrap(payload));
+        pipeline.flush();
+        pipeline.close();
+
+        assertEquals(894863, pipeline.getConnectedHeight());
+        assertEquals(Collections.singletonList(block.getHash()), connected);
+    }
+
+    @Test
+    public void shouldStopWhenConnectThreadInterrupted() throws Exception {
+        final StoredBlock start = startBlock(100000);
+        final HeaderSyncPipeline pipeline = new HeaderSyncPipeline(params, checkpointed, start,
+            (height, header) -> Thread.currentThread().interrupt(), 1, 1, 2);
+        // More than the capacity, which must not block once the pipeline has stopped
+        for (AltcoinBlock header : buildHeaders(start.getHeader().getHash(), 20)) {
+            try {
+                pipeline.submit(serialize(header));
+            } catch (ExecutionException e) {
+                break;
+            }
+        }
+        final ExecutionException e = assertThrows(ExecutionException.class, pipeline::flush);
+        assertTrue(e.getCause() instanceof InterruptedException);
+        assertEquals(100001, pipeline.getConnectedHeight());
+
+        // Closing does not throw, and keeps the caller's interrupt
+        Thread.currentThread().interrupt();
+        pipeline.close();
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    public void shouldRejectUseAfterClose() throws Exception {
+        final HeaderSyncPipeline pipeline = new HeaderSyncPipeline(params, checkpointed, startBlock(1),
+            (height, header) -> { });
+        pipeline.close();
+        pipeline.close();
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(ByteBuffer.allocate(Block.HEADER_SIZE)));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.script;
+
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.core.Util;
+import org.bitcoinj.script.ScriptException;
+import org.bitcoinj.script.ScriptOpCodes;
+import org.junit.Before;
+import org.junit.Test;
+import org.libdohj.core.Utils;
+import org.libdohj.names.Name;
+import org.libdohj.names.NameTransactionUtils;
+import org.libdohj.params.DogecoinMainNetParams;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Name operations decoded from raw script bytes, checked against
+ * {@link NameScript}.
+ */
+public class RawNameScriptTest {
+    private static final DogecoinMainNetParams params = DogecoinMainNetParams.get();
+
+    private final RawNameScript ns = new RawNameScript();
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+    }
+
+    private Transaction readTransaction(final String name) throws IOException {
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream(name));
+        return params.getDefaultSerializer().makeTransaction(ByteBuffer.wrap(payload));
+    }
+
+    private static String text(final byte[] script, final int offset, final int length) {
+        return new String(script, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Check every output decodes the same way as with {@link NameScript}.
+     */
+    private void assertMatchesNameScript(final Transaction tx) {
+        for (TransactionOutput output : tx.getOutputs()) {
+            final NameScript expected = new NameScript(output.getScriptPubKey());
+            assertEquals(expected.isNameOp(), ns.parse(output.getScriptBytes()));
+            assertEquals(expected.isNameOp(), ns.isNameOp());
+            if (ns.isNameOp()) {
+                assertArrayEquals(expected.getAddress().program(), ns.getAddress());
+                assertEquals(expected.isAnyUpdate(), ns.isAnyUpdate());
+            }
+            if (ns.isAnyUpdate()) {
+                assertArrayEquals(expected.getOpName().data, ns.getName());
+                assertArrayEquals(expected.getOpValue().data, ns.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void shouldDecodeNameNew() throws IOException {
+        final Transaction tx = readTransaction("namecoin_name_new_d_bitcoin.bin");
+        assertFalse(ns.parse(tx.getOutput(0).getScriptBytes()));
+        assertEquals(ScriptOpCodes.OP_NOP, ns.getOp());
+
+        final byte[] script = tx.getOutput(1).getScriptBytes();
+        assertTrue(ns.parse(script));
+        assertSame(script, ns.getScript());
+        assertEquals(NameScript.OP_NAME_NEW, ns.getOp());
+        assertFalse(ns.isAnyUpdate());
+        assertEquals(23, ns.getAddressOffset());
+        assertEquals(25, ns.getAddressLength());
+        assertThrows(ScriptException.class, ns::getNameOffset);
+        assertMatchesNameScript(tx);
+    }
+
+    @Test
+    public void shouldDecodeNameFirstUpdate() throws IOException {
+        final Transaction tx = readTransaction("namecoin_name_firstupdate_d_bitcoin.bin");
+        final byte[] script = tx.getOutput(1).getScriptBytes();
+        assertTrue(ns.parse(script));
+        assertEquals(NameScript.OP_NAME_FIRSTUPDATE, ns.getOp());
+        assertTrue(ns.isAnyUpdate());
+        assertEquals("d/bitcoin", text(script, ns.getNameOffset(), ns.getNameLength()));
+        assertTrue(ns.nameEquals("d/bitcoin"));
+        assertFalse(ns.nameEquals("d/bitcoin2"));
+        assertTrue(ns.nameEquals(Name.of("d/bitcoin")));
+        assertFalse(ns.nameEquals(Name.of("d/bitcoin2")));
+        assertEquals("webpagedeveloper.me/namecoin", text(script, ns.getValueOffset(), ns.getValueLength()));
+        assertArrayEquals(Utils.HEX.decode("76a914dbc7c2fad09980487da47a2e00138cffcaab2d6188ac"), ns.getAddress());
+
+        // OP_RETURN output
+        assertFalse(ns.parse(tx.getOutput(2).getScriptBytes()));
+        assertMatchesNameScript(tx);
+    }
+
+    @Test
+    public void shouldDecodeNameUpdate() throws IOException {
+        final Transaction tx = readTransaction("namecoin_name_update_d_bitcoin.bin");
+        final byte[] script = tx.getOutput(1).getScriptBytes();
+        assertTrue(ns.parse(script));
+        assertEquals(NameScript.OP_NAME_UPDATE, ns.getOp());
+        assertTrue(ns.nameEquals("d/bitcoin"));
+        // Pushed with OP_PUSHDATA1
+        assertEquals(0xcf, ns.getValueLength());
+        assertTrue(text(script, ns.getValueOffset(), ns.getValueLength()).startsWith("{\"info\":"));
+        assertMatchesNameScript(tx);
+
+        assertSame(tx.getOutput(1), NameTransactionUtils.getNameAnyUpdateOutput(tx, "d/bitcoin"));
+        assertNull(NameTransactionUtils.getNameAnyUpdateOutput(tx, "d/namecoin"));
+        assertSame(tx.getOutput(1), NameTransactionUtils.getNameAnyUpdateOutput(tx, Name.of("d/bitcoin")));
+    }
+
+    @Test
+    public void shouldRejectOtherScripts() throws IOException {
+        final Transaction tx = readTransaction("namecoin_p2pkh.bin");
+        for (TransactionOutput output : tx.getOutputs()) {
+            assertFalse(ns.parse(output.getScriptBytes()));
+        }
+        assertMatchesNameScript(tx);
+        assertFalse(ns.parse(new byte[0]));
+
+        // Truncated within the value, and without the drops and address
+        final byte[] script = readTransaction("namecoin_name_firstupdate_d_bitcoin.bin").getOutput(1).getScriptBytes();
+        assertTrue(ns.parse(script));
+        final int valueEnd = ns.getValueOffset() + ns.getValueLength();
+        assertFalse(ns.parse(Arrays.copyOf(script, valueEnd - 1)));
+        assertFalse(ns.parse(Arrays.copyOf(script, valueEnd)));
+        assertTrue(ns.parse(Arrays.copyOf(script, valueEnd + 1)));
+        assertEquals(0, ns.getAddressLength());
+
+        // Wrong argument count for the op
+        final byte[] update = script.clone();
+        update[0] = (byte) NameScript.OP_NAME_UPDATE;
+        assertFalse(ns.parse(update));
+        assertFalse(ns.isNameOp());
+    }
+}
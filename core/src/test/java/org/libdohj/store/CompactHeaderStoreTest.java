@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.store;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.core.Util;
+import org.bitcoinj.store.BlockStoreException;
+import org.junit.Before;
+import org.junit.Test;
+import org.libdohj.core.ChainWork;
+import org.libdohj.params.AbstractDogecoinParams;
+import org.libdohj.params.DogecoinMainNetParams;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Storage and lookup of headers in the compact header store.
+ */
+public class CompactHeaderStoreTest {
+    private static final AbstractDogecoinParams params = DogecoinMainNetParams.get();
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+    }
+
+    private AltcoinBlock readBlock(final String name) throws IOException {
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/" + name));
+        return (AltcoinBlock) params.getDefaultSerializer().makeBlock(ByteBuffer.wrap(payload));
+    }
+
+    private static byte[] headerBytes(final Block block) {
+        final byte[] header = new byte[Block.HEADER_SIZE];
+        ((AltcoinBlock) block).writeHeader(header, 0);
+        return header;
+    }
+
+    private static byte[] remainingBytes(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void shouldRoundTripFixtureHeaders() throws Exception {
+        final CompactHeaderStore store = new CompactHeaderStore(params, 4);
+        final String[] fixtures = { "dogecoin_block1.bin", "dogecoin_block371337.bin",
+            "dogecoin_block748634.bin", "dogecoin_block894863.bin" };
+        final BigInteger chainWork = new BigInteger("0123456789abcdef01234567", 16);
+        for (int i = 0; i < fixtures.length; i++) {
+            store.put(new StoredBlock(readBlock(fixtures[i]), chainWork, i));
+        }
+        assertEquals(fixtures.length, store.size());
+
+        for (int i = 0; i < fixtures.length; i++) {
+            final AltcoinBlock expected = readBlock(fixtures[i]);
+            final StoredBlock stored = store.get(expected.getHash());
+            assertNotNull(fixtures[i], stored);
+            assertEquals(i, stored.getHeight());
+            assertEquals(chainWork, stored.getChainWork());
+            final AltcoinBlock actual = (AltcoinBlock) stored.getHeader();
+            assertEquals(expected.getHash(), actual.getHash());
+            assertArrayEquals(headerBytes(expected), headerBytes(actual));
+            if (expected.getAuxPoWBytes() == null) {
+                assertNull(actual.getAuxPoWBytes());
+            } else {
+                assertArrayEquals(remainingBytes(expected.getAuxPoWBytes()),
+                    remainingBytes(actual.getAuxPoWBytes()));
+                assertEquals(expected.getAuxPoW().getParentBlockHeader().getHash(),
+                    actual.getAuxPoW().getParentBlockHeader().getHash());
+            }
+        }
+        assertNull(store.get(Sha256Hash.ZERO_HASH));
+    }
+
+    @Test
+    public void shouldGrowBeyondExpectedSize() throws Exception {
+        final CompactHeaderStore store = new CompactHeaderStore(params, 16);
+        final List<StoredBlock> chain = HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 70000, 0);
+        for (StoredBlock block : chain) {
+            store.put(block);
+        }
+        assertEquals(chain.size(), store.size());
+        for (int i = 0; i < chain.size(); i += 997) {
+            final StoredBlock expected = chain.get(i);
+            final StoredBlock actual = store.get(expected.getHeader().getHash());
+            assertEquals(expected.getHeight(), actual.getHeight());
+            assertEquals(expected.getChainWork(), actual.getChainWork());
+            assertEquals(expected.getHeader().getHash(), actual.getHeader().getHash());
+        }
+    }
+
+    @Test
+    public void shouldReplaceExistingBlock() throws Exception {
+        final CompactHeaderStore store = new CompactHeaderStore(params);
+        final StoredBlock block = HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 1, 0).get(0);
+        store.put(block);
+        store.put(new StoredBlock(block.getHeader(), BigInteger.TEN, 5));
+        assertEquals(1, store.size());
+        final StoredBlock stored = store.get(block.getHeader().getHash());
+        assertEquals(5, stored.getHeight());
+        assertEquals(BigInteger.TEN, stored.getChainWork());
+    }
+
+    @Test
+    public void shouldIndexBestChainByHeight() throws Exception {
+        final CompactHeaderStore store = new CompactHeaderStore(params, 16);
+        final List<StoredBlock> chain = HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 100, 0);
+        for (StoredBlock block : chain) {
+            store.put(block);
+        }
+        assertNull(store.getChainHead());
+        store.setChainHead(chain.get(99));
+        assertEquals(chain.get(99).getHeader().getHash(), store.getChainHead().getHeader().getHash());
+        for (int i = 0; i < chain.size(); i++) {
+            assertEquals(chain.get(i).getHeader().getHash(), store.getByHeight(i).getHeader().getHash());
+        }
+        assertNull(store.getByHeight(100));
+        assertNull(store.getByHeight(-1));
+
+        // Reorganise onto a longer fork from height 50
+        final List<StoredBlock> fork = HeaderChains.build(params, chain.get(49).getHeader().getHash(), 50, 60, 1000000);
+        for (StoredBlock block : fork) {
+            store.put(block);
+        }
+        store.setChainHead(fork.get(59));
+        assertEquals(chain.get(49).getHeader().getHash(), store.getByHeight(49).getHeader().getHash());
+        for (int i = 0; i < fork.size(); i++) {
+            assertEquals(fork.get(i).getHeader().getHash(), store.getByHeight(50 + i).getHeader().getHash());
+        }
+
+        // Move back to the original chain, which clears the heights above it
+        store.setChainHead(chain.get(99));
+        assertEquals(chain.get(50).getHeader().getHash(), store.getByHeight(50).getHeader().getHash());
+        assertNull(store.getByHeight(100));
+    }
+
+    @Test
+    public void shouldAccumulateChainWorkOnPutNext() throws Exception {
+        final CompactHeaderStore store = new CompactHeaderStore(params);
+        final StoredBlock start = HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 1, 0).get(0);
+        store.put(start);
+        final List<StoredBlock> chain = HeaderChains.build(params, start.getHeader().getHash(), 1, 50, 100);
+        StoredBlock expected = start;
+        for (StoredBlock block : chain) {
+            assertEquals(block.getHeight(), store.putNext((AltcoinBlock) block.getHeader()));
+            expected = expected.build(block.getHeader());
+        }
+        final Sha256Hash tipHash = expected.getHeader().getHash();
+        final StoredBlock tip = store.get(tipHash);
+        assertEquals(50, tip.getHeight());
+        assertEquals(expected.getChainWork(), tip.getChainWork());
+        assertEquals(expected.getChainWork(), store.getChainWork(tipHash, new ChainWork()).toBigInteger());
+        assertNull(store.getChainWork(Sha256Hash.ZERO_HASH, new ChainWork()));
+
+        final Sha256Hash startHash = start.getHeader().getHash();
+        assertTrue(store.compareChainWork(tipHash, startHash) > 0);
+        assertTrue(store.compareChainWork(startHash, tipHash) < 0);
+        assertEquals(0, store.compareChainWork(tipHash, tipHash));
+        assertThrows(BlockStoreException.class, () -> store.compareChainWork(tipHash, Sha256Hash.ZERO_HASH));
+
+        // Orphan headers cannot be connected
+        final AltcoinBlock orphan
+            = (AltcoinBlock) HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 2, 500).get(1).getHeader();
+        assertThrows(BlockStoreException.class, () -> store.putNext(orphan));
+        assertEquals(51, store.size());
+    }
+
+    @Test
+    public void shouldRejectChainWorkTooLargeToStore() throws Exception {
+        final CompactHeaderStore store = new CompactHeaderStore(params);
+        final StoredBlock block = HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 1, 0).get(0);
+        assertThrows(BlockStoreException.class,
+            () -> store.put(new StoredBlock(block.getHeader(), BigInteger.ONE.shiftLeft(96), 0)));
+        assertEquals(0, store.size());
+        assertNull(store.get(block.getHeader().getHash()));
+    }
+
+    @Test
+    public void shouldRejectUseAfterClose() throws Exception {
+        final CompactHeaderStore store = new CompactHeaderStore(params);
+        final StoredBlock block = HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 1, 0).get(0);
+        store.put(block);
+        store.close();
+        assertThrows(BlockStoreException.class, () -> store.get(block.getHeader().getHash()));
+        assertThrows(BlockStoreException.class, () -> store.put(block));
+    }
+}
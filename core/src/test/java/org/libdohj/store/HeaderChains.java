@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.store;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.StoredBlock;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chains of synthetic headers shared by the header store tests.
+ */
+final class HeaderChains {
+    private HeaderChains() {
+    }
+
+    /**
+     * Build a chain of synthetic headers, each following the last. Headers
+     * built with different seeds differ, so can be used for forks.
+     */
+    static List<StoredBlock> build(final NetworkParameters params, final Sha256Hash start, final int startHeight,
+                                   final int length, final long seed) {
+        final List<StoredBlock> chain = new ArrayList<>(length);
+        Sha256Hash prevBlockHash = start;
+        BigInteger chainWork = BigInteger.valueOf(startHeight);
+        for (int i = 0; i < length; i++) {
+            final AltcoinBlock header = new AltcoinBlock(params.network(), 0x00620004L, prevBlockHash,
+                Sha256Hash.ZERO_HASH, 1400000000L + i, 0x1b568bb8L, seed + i, null);
+            chainWork = chainWork.add(BigInteger.valueOf(1000003L * (i + 1)));
+            chain.add(new StoredBlock(header, chainWork, startHeight + i));
+            prevBlockHash = header.getHash();
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 The libdohj developers.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.libdohj.store;
+
+import org.bitcoinj.base.Sha256Hash;
+import org.bitcoinj.core.AltcoinBlock;
+import org.bitcoinj.core.Context;
+import org.bitcoinj.core.StoredBlock;
+import org.bitcoinj.core.Util;
+import org.bitcoinj.store.BlockStoreException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.libdohj.params.AbstractDogecoinParams;
+import org.libdohj.params.DogecoinMainNetParams;
+import org.libdohj.params.DogecoinTestNet3Params;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Persistence and lookup of headers in the memory-mapped header store.
+ */
+public class MappedHeaderStoreTest {
+    private static final AbstractDogecoinParams params = DogecoinMainNetParams.get();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = new Context(params);
+    }
+
+    @Test
+    public void shouldReopenWithoutReplaying() throws Exception {
+        final File directory = folder.newFolder();
+        final List<StoredBlock> chain = HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 1000, 0);
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/dogecoin_block371337.bin"));
+        final AltcoinBlock auxPoWBlock = (AltcoinBlock) params.getDefaultSerializer()
+            .makeBlock(ByteBuffer.wrap(payload));
+
+        MappedHeaderStore store = new MappedHeaderStore(params, directory);
+        for (StoredBlock block : chain) {
+            store.put(block);
+        }
+        store.put(new StoredBlock(auxPoWBlock, BigInteger.ONE, 371337));
+        store.setChainHead(chain.get(999));
+        store.close();
+
+        store = new MappedHeaderStore(params, directory);
+        try {
+            assertEquals(chain.size() + 1, store.size());
+            assertEquals(chain.get(999).getHeader().getHash(), store.getChainHead().getHeader().getHash());
+            for (int i = 0; i < chain.size(); i++) {
+                final StoredBlock expected = chain.get(i);
+                final StoredBlock byHeight = store.getByHeight(i);
+                assertEquals(expected.getHeader().getHash(), byHeight.getHeader().getHash());
+                assertEquals(expected.getChainWork(), byHeight.getChainWork());
+                assertEquals(expected.getHeader().getHash(),
+                    store.get(expected.getHeader().getHash()).getHeader().getHash());
+            }
+            assertNull(store.getByHeight(1000));
+
+            final AltcoinBlock stored = (AltcoinBlock) store.get(auxPoWBlock.getHash()).getHeader();
+            assertNotNull(stored.getAuxPoWBytes());
+            assertEquals(auxPoWBlock.getAuxPoWBytes(), stored.getAuxPoWBytes());
+            assertEquals(auxPoWBlock.getAuxPoW().getParentBlockHeader().getHash(),
+                stored.getAuxPoW().getParentBlockHeader().getHash());
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void shouldReuseAuxPoWWhenPutAgain() throws Exception {
+        final byte[] payload = Util.getBytes(getClass().getResourceAsStream("/org/bitcoinj/core/dogecoin_block371337.bin"));
+        final AltcoinBlock auxPoWBlock = (AltcoinBlock) params.getDefaultSerializer()
+            .makeBlock(ByteBuffer.wrap(payload));
+
+        final MappedHeaderStore store = new MappedHeaderStore(params, folder.newFolder());
+        try {
+            store.put(new StoredBlock(auxPoWBlock, BigInteger.ONE, 371337));
+            final long auxPoWSize = store.auxPoWSize;
+            store.put(new StoredBlock(auxPoWBlock, BigInteger.TEN, 371337));
+            // Putting the block read back from the store must not copy its AuxPoW either
+            store.put(store.get(auxPoWBlock.getHash()));
+
+            assertEquals(auxPoWSize, store.auxPoWSize);
+            assertEquals(1, store.size());
+            final StoredBlock stored = store.get(auxPoWBlock.getHash());
+            assertEquals(BigInteger.TEN, stored.getChainWork());
+            assertEquals(auxPoWBlock.getAuxPoWBytes(), ((AltcoinBlock) stored.getHeader()).getAuxPoWBytes());
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void shouldKeepHeightsAcrossReorganisation() throws Exception {
+        final File directory = folder.newFolder();
+        final List<StoredBlock> chain = HeaderChains.build(params, Sha256Hash.ZERO_HASH, 0, 100, 0);
+        final List<StoredBlock> fork = HeaderChains.build(params, chain.get(49).getHeader().getHash(), 50, 60, 1000000);
+
+        MappedHeaderStore store = new MappedHeaderStore(params, directory);
+        for (StoredBlock block : chain) {
+            store.put(block);
+        }
+        store.setChainHead(chain.get(99));
+        for (StoredBlock block : fork) {
+            store.put(block);
+        }
+        store.setChainHead(fork.get(59));
+        store.close();
+
+        store = new MappedHeaderStore(params, directory);
+        try {
+            assertEquals(chain.get(49).getHeader().getHash(), store.getByHeight(49).getHeader().getHash());
+            assertEquals(fork.get(0).getHeader().getHash(), store.getByHeight(50).getHeader().getHash());
+            assertEquals(fork.get(59).getHeader().getHash(), store.getByHeight(109).getHeader().getHash());
+
+            store.setChainHead(chain.get(99));
+            assertEquals(chain.get(50).getHeader().getHash(), store.getByHeight(50).getHeader().getHash());
+            assertNull(store.getByHeight(100));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void shouldRejectOtherNetwork() throws Exception {
+        final File directory = folder.newFolder();
+        new MappedHeaderStore(params, directory).close();
+        assertThrows(BlockStoreException.class,
+            () -> new MappedHeaderStore(DogecoinTestNet3Params.get(), directory));
+    }
+}
@@ -22,6 +22,7 @@ import org.bitcoinj.core.StoredBlock;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.store.BlockStore;
 import org.bitcoinj.store.BlockStoreException;
+import org.libdohj.store.HeightIndexedBlockStore;
 
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -54,6 +55,11 @@ public class NameLookupByBlockHeightHashCache implements NameLookupByBlockHeight
     protected void initBlockHashCache() throws BlockStoreException {
         blockHashCache = new ConcurrentHashMap<Integer, Sha256Hash>(72000);
         
+        // A height indexed store answers height lookups directly
+        if (store instanceof HeightIndexedBlockStore) {
+            return;
+        }
+        
         StoredBlock blockPointer = chain.getChainHead();
         
         int headHeight = blockPointer.getHeight();
@@ -92,6 +98,13 @@ public class NameLookupByBlockHeightHashCache implements NameLookupByBlockHeight
             return maybeResult;
         }
         
+        if (store instanceof HeightIndexedBlockStore) {
+            StoredBlock block = ((HeightIndexedBlockStore) store).getByHeight(height);
+            if (block != null) {
+                return block.getHeader().getHash();
+            }
+        }
+        
         // If we got this far, the block height is uncached.
         // This could be because the block is immature, 
         // or it could be because the cache is only initialized on initial startup.
@@ -24,4 +24,9 @@ public interface NameLookupLatest {
     
     public Transaction getNameTransaction(String name, String identity) throws Exception;
     
+    // Implementations which store names as bytes should override this to skip the String round trip.
+    public default Transaction getNameTransaction(Name name, String identity) throws Exception {
+        return getNameTransaction(name.toString(), identity);
+    }
+    
 }
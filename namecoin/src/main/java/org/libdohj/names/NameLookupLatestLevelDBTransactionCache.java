@@ -17,7 +17,7 @@
 
 package org.libdohj.names;
 
-import org.libdohj.script.NameScript;
+import org.libdohj.store.HeightIndexedBlockStore;
 
 import org.bitcoinj.core.AbstractBlockChain;
 import org.bitcoinj.core.Block;
@@ -29,12 +29,10 @@ import org.bitcoinj.core.PeerGroup;
 import org.bitcoinj.base.Sha256Hash;
 import org.bitcoinj.core.StoredBlock;
 import org.bitcoinj.core.Transaction;
-import org.bitcoinj.core.TransactionOutput;
 import org.bitcoinj.core.VerificationException;
 import org.bitcoinj.core.listeners.NewBestBlockListener;
 import org.bitcoinj.core.listeners.ReorganizeListener;
 import org.bitcoinj.core.listeners.TransactionReceivedInBlockListener;
-import org.bitcoinj.script.ScriptException;
 import org.bitcoinj.script.Script;
 import org.bitcoinj.store.BlockStore;
 import org.bitcoinj.store.BlockStoreException;
@@ -52,7 +50,10 @@ import com.google.common.collect.SetMultimap;
 
 import java.io.*;
 import java.nio.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.List;
@@ -61,9 +62,14 @@ import java.util.List;
 
 public class NameLookupLatestLevelDBTransactionCache implements NameLookupLatest, NewBestBlockListener, ReorganizeListener, TransactionReceivedInBlockListener {
     
+    // Notified after each chunk of blocks is written while catching up, on the thread doing the catch-up.
+    public interface CatchUpListener {
+        void onCatchUpProgress(int height, int targetHeight);
+    }
     
     protected static final byte[] CHAIN_HEAD_KEY = "Head".getBytes();
     protected static final byte[] HEIGHT_KEY = "Height".getBytes();
+    protected static final byte[] NAME_SCRIPT_KEY_PREFIX = "NamScr".getBytes(StandardCharsets.ISO_8859_1);
     
     protected BlockChain chain;
     protected BlockStore store;
@@ -74,8 +80,14 @@ public class NameLookupLatestLevelDBTransactionCache implements NameLookupLatest
     protected File path;
     
     protected DB db;
+    // Whether writes are synced to disk before they return; see setSyncWrites.
+    protected volatile WriteOptions writeOptions = new WriteOptions().sync(false);
+    
+    // Most blocks written in one batch, and under one hold of the lock, while catching up.
+    protected static final int CATCH_UP_CHUNK_BLOCKS = 500;
+    protected volatile CatchUpListener catchUpListener;
     
-    protected SetMultimap<Sha256Hash, Transaction> pendingBlockTransactions = Multimaps.synchronizedSetMultimap(HashMultimap.<Sha256Hash, Transaction>create());
+    protected SetMultimap<Sha256Hash, NameOperations> pendingBlockNameOperations = Multimaps.synchronizedSetMultimap(HashMultimap.<Sha256Hash, NameOperations>create());
     
     protected Logger log = LoggerFactory.getLogger(NameLookupLatestLevelDBTransactionCache.class);
     
@@ -112,6 +124,20 @@ public class NameLookupLatestLevelDBTransactionCache implements NameLookupLatest
         initStoreIfNeeded();
     }
     
+    /**
+     * Sets whether each write, which covers a whole block or group of blocks, is synced to disk before it returns.
+     * Either way each write is applied atomically; without syncing, writes since the last sync may be lost if the
+     * machine (rather than just the process) crashes, and are then redone when the blocks are next received.
+     * Defaults to false.
+     */
+    public void setSyncWrites(boolean sync) {
+        writeOptions = new WriteOptions().sync(sync);
+    }
+    
+    public boolean isSyncWrites() {
+        return writeOptions.sync();
+    }
+    
     protected synchronized void initStoreIfNeeded() {
         if (db.get(CHAIN_HEAD_KEY) != null)
             return;   // Already initialised.
@@ -131,30 +157,138 @@ public class NameLookupLatestLevelDBTransactionCache implements NameLookupLatest
         return result;
     }
     
-    protected synchronized void putBlockChain(StoredBlock block) throws Exception {
+    // Catches up from the chain head to the given block in chunks of at most CATCH_UP_CHUNK_BLOCKS blocks, each written
+    // in one batch.  The lock is only held while a chunk is being written, so lookups aren't stalled by a long catch-up.
+    // Blocks are found by height if the store indexes the given block's chain, and otherwise by walking back from the
+    // given block once, without recursion.  Heights below the first block young enough to index are skipped in a single
+    // write once a walk reaches them.
+    protected void putBlockChain(StoredBlock block) throws Exception {
+        
+        int targetHeight = block.getHeight();
+        
+        // Blocks walked back from the given block, highest first; unused while the height index can be used.
+        List<StoredBlock> walked = new ArrayList<>();
+        int startHeight = getChainHead() + 1;
+        if (startHeight <= targetHeight && ! isIndexedChain(block)) {
+            // Walk back without holding the lock.
+            walkBackTo(walked, block, startHeight);
+        }
         
-        // TODO: use BIP 113 timestamps
-        if ( (new Date().getTime() / 1000 ) - block.getHeader().getTimeSeconds() > 366 * 24 * 60 * 60) {
-            log.debug("NameDB halting walkbalk due to timestamp expiration, height " + block.getHeight());
-            return;
+        while (true) {
+            int chunkEnd;
+            
+            synchronized (this) {
+                // The chain head is re-read for each chunk, as a reorg may have moved it in between.
+                int chunkStart = getChainHead() + 1;
+                if (chunkStart > targetHeight) {
+                    break;
+                }
+                chunkEnd = Math.min(targetHeight, chunkStart + CATCH_UP_CHUNK_BLOCKS - 1);
+                
+                // Once we've had to walk, keep walking, as the best chain has moved away from the given block.
+                boolean useIndex = walked.isEmpty() && isIndexedChain(block);
+                
+                WriteBatch batch = db.createWriteBatch();
+                try {
+                    List<Sha256Hash> blockHashes = new ArrayList<>();
+                    for (int height = chunkStart; height <= chunkEnd; height++) {
+                        StoredBlock chunkBlock = useIndex ? ((HeightIndexedBlockStore) store).getByHeight(height) : null;
+                        if (chunkBlock == null) {
+                            // Also used if the index is missing the block, in which case later chunks walk too.
+                            chunkBlock = walkBackTo(walked, block, height);
+                            if (chunkBlock == null) {
+                                // The walk stopped at an expired block, and every block up to it is expired too, so
+                                // move the chain head straight past them rather than chunk through them.
+                                chunkEnd = walked.get(walked.size() - 1).getHeight();
+                                break;
+                            }
+                        }
+                        if (isExpired(chunkBlock)) {
+                            continue;
+                        }
+                        putBlock(chunkBlock, batch);
+                        blockHashes.add(chunkBlock.getHeader().getHash());
+                    }
+                    
+                    // Expired blocks aren't indexed, but the chain head still moves past them.
+                    setChainHead(batch, chunkEnd);
+                    writeBatch(batch, blockHashes);
+                } finally {
+                    batch.close();
+                }
+            }
+            
+            log.debug("NameDB caught up to height " + chunkEnd + " of " + targetHeight);
+            CatchUpListener listener = catchUpListener;
+            if (listener != null) {
+                listener.onCatchUpProgress(chunkEnd, targetHeight);
+            }
+        }
+    }
+    
+    // Whether the store's height index is on the chain of the given block.
+    protected boolean isIndexedChain(StoredBlock block) throws BlockStoreException {
+        if (! (store instanceof HeightIndexedBlockStore)) {
+            return false;
         }
         
-        if (block.getHeight() > getChainHead() + 1) {
-            putBlockChain(block.getPrev(store));
+        StoredBlock indexed = ((HeightIndexedBlockStore) store).getByHeight(block.getHeight());
+        return indexed != null && indexed.getHeader().getHash().equals(block.getHeader().getHash());
+    }
+    
+    // Walks back from the given block until the block at the given height is reached, adding the blocks to those already walked.
+    // Returns null if the walk stops at an expired block above that height, as the blocks before it are too old to index as well.
+    protected StoredBlock walkBackTo(List<StoredBlock> walked, StoredBlock block, int height) throws BlockStoreException {
+        if (walked.isEmpty()) {
+            walked.add(block);
+        }
+        
+        StoredBlock lowest = walked.get(walked.size() - 1);
+        while (lowest.getHeight() > height) {
+            if (isExpired(lowest)) {
+                log.debug("NameDB halting walkback due to timestamp expiration, height " + lowest.getHeight());
+                return null;
+            }
+            
+            StoredBlock prev = lowest.getPrev(store);
+            if (prev == null) {
+                throw new BlockStoreException("Block before height " + lowest.getHeight() + " is missing from the store");
+            }
+            walked.add(prev);
+            lowest = prev;
         }
         
-        putBlock(block);
+        return walked.get(block.getHeight() - height);
     }
     
+    protected boolean isExpired(StoredBlock block) {
+        // TODO: use BIP 113 timestamps
+        return (new Date().getTime() / 1000 ) - block.getHeader().getTimeSeconds() > 366 * 24 * 60 * 60;
+    }
+    
+    public void setCatchUpListener(CatchUpListener listener) {
+        catchUpListener = listener;
+    }
+    
+    // Applies a batch of blocks atomically, and only then forgets their pending name operations, so that a failed write can be retried.
+    protected synchronized void writeBatch(WriteBatch batch, List<Sha256Hash> blockHashes) {
+        db.write(batch, writeOptions);
+        
+        for (Sha256Hash blockHash : blockHashes) {
+            pendingBlockNameOperations.removeAll(blockHash);
+        }
+    }
+    
+    // Adds the block's name records and the new chain head to the batch; nothing is written until the batch is.
     // TODO: try a different peer if downloading a block fails, otherwise we're likely to stall the syncup
-    protected synchronized void putBlock(StoredBlock block) throws Exception {
+    protected synchronized void putBlock(StoredBlock block, WriteBatch batch) throws Exception {
         
         Sha256Hash blockHash = block.getHeader().getHash();
         
-        // We might not have the block's transactions already; if we don't, we have to download the block again.
+        // We might not have the block's name operations already; if we don't, we have to download the block again.
         // This should be very rare; I'm not actually certain what circumstances would trigger it.
         // (I guess it would happen if block.transactions is null?)
-        if (! pendingBlockTransactions.containsKey(block.getHeader().getHash())) {
+        if (! pendingBlockNameOperations.containsKey(block.getHeader().getHash())) {
             log.warn("Transactions missing from block " + blockHash + "; re-downloading block...");
             
             Block nameFullBlock = peerGroup.getDownloadPeer().getBlock(blockHash).get();
@@ -175,71 +309,40 @@ public class NameLookupLatestLevelDBTransactionCache implements NameLookupLatest
             // Now we know that the block is internally valid (including the merkle root).
             // We haven't verified signature validity, but our threat model is SPV.
             
-            for (Transaction tx : nameFullBlock.getTransactions()) {
-                for (TransactionOutput output : tx.getOutputs()) {
-                    try {
-                        Script scriptPubKey = output.getScriptPubKey();
-                        NameScript ns = new NameScript(scriptPubKey);
-                        if(ns.isNameOp() && ns.isAnyUpdate() ) {
-                            pendingBlockTransactions.put(block.getHeader().getHash(), tx);
-                        }
-                    } catch (ScriptException e) {
-                        // Our threat model is lightweight SPV, which means we
-                        // don't attempt to reject a blockchain due to a single
-                        // invalid transaction.  As such, if we see a
-                        // ScriptException, we just discard the transaction
-                        // (and log a warning) rather than rejecting the block.
-                        log.warn("Error checking TransactionOutput for name_anyupdate script!", e);
-                        continue;
-                    }
-                }
-            }
+            // Scripts which aren't valid name operations are skipped rather
+            // than rejecting the block, as our threat model is lightweight SPV.
+            pendingBlockNameOperations.put(blockHash, NameOperations.extract(nameFullBlock.getTransactions(), block.getHeight()));
         }
         
-        int height = block.getHeight();
-        
         // See thread safety warning:
         // https://google.github.io/guava/releases/snapshot/api/docs/com/google/common/collect/Multimaps.html#synchronizedMultimap%28com.google.common.collect.Multimap%29
-        synchronized (pendingBlockTransactions) {
-            for (Transaction tx : pendingBlockTransactions.get(block.getHeader().getHash())) {
-                for (TransactionOutput output : tx.getOutputs()) {
-                    try {
-                        Script scriptPubKey = output.getScriptPubKey();
-                        NameScript ns = new NameScript(scriptPubKey);
-                        if(ns.isNameOp() && ns.isAnyUpdate() ) {
-                            putNameScript(scriptPubKey, ns, height);
-                        }
-                    } catch (ScriptException e) {
-                        continue;
+        synchronized (pendingBlockNameOperations) {
+            for (NameOperations ops : pendingBlockNameOperations.get(blockHash)) {
+                for (int i = 0; i < ops.size(); i++) {
+                    if (ops.isAnyUpdate(i)) {
+                        putNameScript(batch, ops.getScript(i), ops.getName(i), ops.getHeight());
                     }
                 }
             }
         }
         
-        pendingBlockTransactions.removeAll(block.getHeader().getHash());
-        
-        setChainHead(block.getHeight());
+        setChainHead(batch, block.getHeight());
     }
     
-    protected synchronized void putNameScript(Script scriptPubKey, NameScript ns, int height) throws UnsupportedEncodingException {
+    protected void putNameScript(WriteBatch batch, byte[] scriptBytes, Name name, int height) {
         
         // TODO: check if name is relevant (e.g. namespace is id/, has zeronet field)
         
-        // key format:
-        byte[] headerBytes = "NamScr".getBytes("ISO-8859-1");
-        byte[] nameBytes = ns.getOpName().data;
+        // key format: NAME_SCRIPT_KEY_PREFIX, then the name
         
         // record format:
         // height goes here
-        byte[] scriptBytes = scriptPubKey.getProgram();
+        // script goes here
         
-        ByteBuffer keyBuffer = ByteBuffer.allocate(headerBytes.length + nameBytes.length);
         ByteBuffer recordBuffer = ByteBuffer.allocate(4 + scriptBytes.length);
-        
-        keyBuffer.put(headerBytes).put(nameBytes);
         recordBuffer.putInt(height).put(scriptBytes);
         
-        db.put(keyBuffer.array(), recordBuffer.array());
+        batch.put(name.toKey(NAME_SCRIPT_KEY_PREFIX), recordBuffer.array());
     }
     
     // TODO: stop duplicating code from the other NameLookupLatest implementations
@@ -267,15 +370,13 @@ public class NameLookupLatestLevelDBTransactionCache implements NameLookupLatest
     // TODO: make a new Exception class
     @Override
     public Transaction getNameTransaction(String name, String identity) throws Exception {
+        return getNameTransaction(Name.of(name), identity);
+    }
+    
+    @Override
+    public Transaction getNameTransaction(Name name, String identity) throws Exception {
         
-        byte[] headerBytes = "NamScr".getBytes("ISO-8859-1");
-        byte[] nameBytes = name.getBytes("ISO-8859-1");
-        // name goes here
-        
-        ByteBuffer keyBuffer = ByteBuffer.allocate(headerBytes.length + nameBytes.length);
-        keyBuffer.put(headerBytes).put(nameBytes);
-        
-        byte[] recordBytes = db.get(keyBuffer.array());
+        byte[] recordBytes = db.get(name.toKey(NAME_SCRIPT_KEY_PREFIX));
         if (recordBytes == null)
             return null;
         
@@ -302,7 +403,11 @@ public class NameLookupLatestLevelDBTransactionCache implements NameLookupLatest
     }
     
     protected synchronized void setChainHead(int chainHead) {
-        db.put(CHAIN_HEAD_KEY, ByteBuffer.allocate(4).putInt(chainHead).array());
+        db.put(CHAIN_HEAD_KEY, ByteBuffer.allocate(4).putInt(chainHead).array(), writeOptions);
+    }
+    
+    protected void setChainHead(WriteBatch batch, int chainHead) {
+        batch.put(CHAIN_HEAD_KEY, ByteBuffer.allocate(4).putInt(chainHead).array());
     }
     
     public synchronized void close() throws IOException {
@@ -388,25 +493,14 @@ public class NameLookupLatestLevelDBTransactionCache implements NameLookupLatest
             return;
         }
         
-        for (TransactionOutput output : tx.getOutputs()) {
-            try {
-                Script scriptPubKey = output.getScriptPubKey();
-                NameScript ns = new NameScript(scriptPubKey);
-                // Always save the coinbase, because it lets us identify that we've received the contents of the block, even if it has no name_anyupdate operations.
-                // TODO: maybe save a null reference instead of the actual coinbase tx, since this would cut down on memory usage very slightly.
-                if(tx.isCoinBase() || ( ns.isNameOp() && ns.isAnyUpdate() ) ) {
-                    log.debug("NameDB temporarily storing name transaction until it gets more confirmations.");
-                    pendingBlockTransactions.put(block.getHeader().getHash(), tx);
-                }
-            } catch (ScriptException e) {
-                // Our threat model is lightweight SPV, which means we
-                // don't attempt to reject a blockchain due to a single
-                // invalid transaction.  As such, if we see a
-                // ScriptException, we just discard the transaction
-                // (and log a warning) rather than rejecting the block.
-                log.warn("Error checking TransactionOutput for name_anyupdate script!", e);
-                continue;
-            }
+        // Our threat model is lightweight SPV, which means we don't attempt to reject a blockchain due to a single
+        // invalid transaction.  As such, outputs which aren't valid name operations are just skipped.
+        NameOperations ops = NameOperations.extract(Collections.singletonList(tx), block.getHeight());
+        
+        // Always save the coinbase's (usually empty) operations, because it lets us identify that we've received the contents of the block, even if it has no name_anyupdate operations.
+        if (tx.isCoinBase() || ! ops.isEmpty()) {
+            log.debug("NameDB temporarily storing name operations until they get more confirmations.");
+            pendingBlockNameOperations.put(block.getHeader().getHash(), ops);
         }
     }
     